@@ -0,0 +1,76 @@
+package hyddd.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hyddd.saveloadmanager.SaveDataLoader;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Benchmarks of loading a text save data file in parallel chunks with 1 to 8 threads, to show how the load
+ * time scales with the number of processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class ParallelLoadBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+    private SaveDataLoader loader;
+    private ForkJoinPool pool;
+
+    /**
+     * Generates the save data file and starts the pool to load it on.
+     *
+     * @throws IOException Throws when the file cannot be written.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        loader = new SaveDataLoader(TaskFiles.returnTaskFile(size).toString());
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Stops the pool.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Loads all the tasks from the save data file in parallel chunks.
+     *
+     * @return Loaded tasks.
+     * @throws IOException Throws when the file cannot be loaded.
+     */
+    @Benchmark
+    public List<Task> loadInParallel() throws IOException {
+        List<Task> loadedTasks = TaskList.newTaskStore(false);
+        loader.loadInParallel(loadedTasks, pool);
+        return loadedTasks;
+    }
+}
@@ -0,0 +1,75 @@
+package hyddd.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hyddd.exceptions.HydddException;
+import hyddd.logics.Parser;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Benchmarks of parsing times and commands, which every command and every loaded line goes through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private final Parser timeParser = new Parser("");
+
+    /**
+     * Parses a time in the format of "d/m/yyyy hhmm".
+     *
+     * @return Parsed time.
+     */
+    @Benchmark
+    public LocalDateTime parseTime() {
+        return timeParser.parseTime("2/12/2019 1800");
+    }
+
+    /**
+     * Parses a time in the format of "yyyy-mm-dd".
+     *
+     * @return Parsed time.
+     */
+    @Benchmark
+    public LocalDateTime parseIsoDate() {
+        return timeParser.parseTime("2019-12-02");
+    }
+
+    /**
+     * Splits a deadline command into its operation type, task, time and index.
+     *
+     * @return Components of the command.
+     * @throws HydddException Throws when the command cannot be parsed.
+     */
+    @Benchmark
+    public ArrayList<String> returnSplitComponent() throws HydddException {
+        return new Parser("deadline return book /by 2/12/2019 1800").returnSplitComponent();
+    }
+
+    /**
+     * Splits a find command, which has no time.
+     *
+     * @return Components of the command.
+     * @throws HydddException Throws when the command cannot be parsed.
+     */
+    @Benchmark
+    public ArrayList<String> returnSplitComponentOfFind() throws HydddException {
+        return new Parser("find book").returnSplitComponent();
+    }
+}
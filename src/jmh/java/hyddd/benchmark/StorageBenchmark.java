@@ -0,0 +1,96 @@
+package hyddd.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hyddd.exceptions.HydddException;
+import hyddd.saveloadmanager.SaveFormat;
+import hyddd.saveloadmanager.Storage;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Benchmarks of loading and saving the save data file, in both formats, with 1k to 1M tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class StorageBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+    @Param({"TEXT", "BINARY"})
+    private SaveFormat saveFormat;
+    private Path directory;
+    private Storage storage;
+    private List<Task> tasks;
+
+    /**
+     * Saves the generated tasks in the format to benchmark, so that they can be loaded back.
+     *
+     * @throws IOException Throws when the files cannot be written.
+     * @throws HydddException Throws when the generated file cannot be loaded.
+     */
+    @Setup
+    public void setUp() throws IOException, HydddException {
+        directory = Files.createTempDirectory("hyddd-benchmark");
+        tasks = TaskList.newTaskStore(false);
+        new Storage(TaskFiles.returnTaskFile(size).toString()).load(tasks);
+        storage = new Storage(directory.resolve("tasks.txt").toString(), saveFormat);
+        storage.saveListDataToFile(tasks);
+    }
+
+    /**
+     * Deletes the files written by the benchmarks.
+     *
+     * @throws IOException Throws when the files cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("tasks.txt"));
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Loads all the tasks from the save data file.
+     *
+     * @return Loaded tasks.
+     * @throws HydddException Throws when the file cannot be loaded.
+     */
+    @Benchmark
+    public List<Task> load() throws HydddException {
+        List<Task> loadedTasks = TaskList.newTaskStore(false);
+        storage.load(loadedTasks);
+        return loadedTasks;
+    }
+
+    /**
+     * Saves all the tasks into the save data file.
+     *
+     * @throws IOException Throws when the file cannot be written.
+     */
+    @Benchmark
+    public void saveListDataToFile() throws IOException {
+        storage.saveListDataToFile(tasks);
+    }
+}
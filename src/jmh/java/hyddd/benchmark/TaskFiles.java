@@ -0,0 +1,65 @@
+package hyddd.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Generates save data files for the benchmarks. A file of a given size always has the same tasks, so that
+ * results can be compared between runs, and it is kept in the temporary directory to be reused by later runs.
+ * A third of the tasks are todos, a third are deadlines and a third are events, every tenth task is done,
+ * and the times spread over about two years from 1/1/2019.
+ */
+public class TaskFiles {
+    //Constant values
+    private static final String FILE_PREFIX = "hyddd-benchmark-";
+    private static final String FILE_SUFFIX = ".txt";
+    private static final int DAYS = 700;
+
+    /**
+     * Returns the path of a save data file with a given number of tasks, generating it if needed.
+     *
+     * @param size Number of tasks in the file.
+     * @return Path of the save data file.
+     * @throws IOException Throws when the file cannot be written.
+     */
+    public static Path returnTaskFile(int size) throws IOException {
+        Path path = Paths.get(System.getProperty("java.io.tmpdir"), FILE_PREFIX + size + FILE_SUFFIX);
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        Path tempPath = Files.createTempFile(FILE_PREFIX, FILE_SUFFIX);
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(returnTaskLine(i));
+                writer.write("\n");
+            }
+        }
+        Files.move(tempPath, path);
+        return path;
+    }
+
+    /**
+     * Returns the save data line of the i-th generated task.
+     *
+     * @param i Number of the task.
+     * @return Line of save data.
+     */
+    public static String returnTaskLine(int i) {
+        String done = i % 10 == 0 ? "1" : "0";
+        int day = i % DAYS;
+        String time = (day % 28 + 1) + "/" + (day / 28 % 12 + 1) + "/" + (2019 + day / 336) + " "
+                + String.format("%02d%02d", i % 24, i % 60);
+        switch (i % 3) {
+        case 0: return "T | " + done + " | read book " + i;
+        case 1: return "D | " + done + " | return book " + i + " | " + time;
+        default: return "E | " + done + " | project meeting " + i + " | " + time;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package hyddd.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hyddd.exceptions.HydddException;
+import hyddd.saveloadmanager.Storage;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Benchmarks of the TaskList operations behind find, tell and adding a task, over lists of 1k to 1M tasks
+ * loaded from generated save data files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TaskListBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+    private TaskList tasks;
+
+    /**
+     * Loads the TaskList from a generated save data file.
+     *
+     * @throws IOException Throws when the file cannot be generated.
+     * @throws HydddException Throws when the file cannot be loaded.
+     */
+    @Setup
+    public void setUp() throws IOException, HydddException {
+        List<Task> loadedTasks = TaskList.newTaskStore(false);
+        new Storage(TaskFiles.returnTaskFile(size).toString()).load(loadedTasks);
+        tasks = new TaskList(loadedTasks);
+    }
+
+    /**
+     * Finds a task by a keyword that only one task has.
+     *
+     * @return Response of find.
+     */
+    @Benchmark
+    public String findRareKeyword() {
+        return tasks.findTasks("book " + (size / 2));
+    }
+
+    /**
+     * Finds tasks by a keyword that is in every third task, and lists all of them.
+     *
+     * @return Response of find.
+     */
+    @Benchmark
+    public String findCommonKeyword() {
+        return tasks.findTasks("meeting");
+    }
+
+    /**
+     * Finds the deadlines and events on one day.
+     *
+     * @return Response of tell.
+     */
+    @Benchmark
+    public String getSpecificDateEvent() {
+        return tasks.getSpecificDateEvent("2/12/2019");
+    }
+
+    /**
+     * Adds a new deadline, which is checked against every task for duplicates, and removes it again so
+     * that the size of the list stays the same.
+     *
+     * @throws HydddException Throws when the task cannot be added.
+     */
+    @Benchmark
+    public void addWithDuplicateCheck() throws HydddException {
+        tasks.add("deadline", "benchmark task", "2/12/2019 1800");
+        tasks.removeLast();
+    }
+}
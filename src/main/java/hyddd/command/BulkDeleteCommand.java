@@ -0,0 +1,57 @@
+package hyddd.command;
+
+import hyddd.exceptions.ExceptionType;
+import hyddd.exceptions.HydddException;
+import hyddd.logics.Parser;
+import hyddd.task.TaskList;
+import hyddd.uimanager.TextUi;
+
+/**
+ * @@author Hang Zelin
+ *
+ * BulkDeleteCommand will handle the situation when a user wants to delete a batch of tasks,
+ * e.g. "delete 1,4,9", "delete 10-500" or "delete where done". The tasks are deleted in one batch,
+ * which is saved and undone as a whole.
+ */
+public class BulkDeleteCommand extends Command {
+    //Constant values
+    private static final String WHERE_DONE = "where done";
+    private final TaskList taskList;
+    private final TextUi textUi;
+    private final String selection;
+
+    /**
+     * Constructor for BulkDeleteCommand class.
+     *
+     * @param taskList TaskList in hyddd.
+     * @param textUi hyddd's UI.
+     * @param selection Indexes and ranges of indexes for the tasks separated by commas, or "where done".
+     */
+    public BulkDeleteCommand(TaskList taskList, TextUi textUi, String selection) {
+        this.taskList = taskList;
+        this.textUi = textUi;
+        this.selection = selection;
+    }
+
+    /**
+     * Returns hyddd's response when user wants to delete a batch of tasks.
+     *
+     * @return hyddd's response.
+     */
+    @Override
+    public String returnResponse() {
+        return deleteAll();
+    }
+
+    private String deleteAll() {
+        int[] indexes = selection.trim().equals(WHERE_DONE)
+                ? taskList.findDoneIndexes()
+                : new Parser("").parseIndexes(selection, taskList.size());
+        if (indexes == null) {
+            return new HydddException(ExceptionType.WRONG_INDEX_ERROR).getErrorMessage();
+        }
+
+        taskList.deleteAll(indexes);
+        return textUi.deleteAllUi(indexes.length, taskList.size());
+    }
+}
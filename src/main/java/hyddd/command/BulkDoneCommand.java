@@ -0,0 +1,52 @@
+package hyddd.command;
+
+import hyddd.exceptions.ExceptionType;
+import hyddd.exceptions.HydddException;
+import hyddd.logics.Parser;
+import hyddd.task.TaskList;
+import hyddd.uimanager.TextUi;
+
+/**
+ * @@author Hang Zelin
+ *
+ * BulkDoneCommand will handle the situation when a user wants to mark a batch of tasks as done,
+ * e.g. "done 10-500" or "done 1,4,9". The tasks are marked in one batch, which is saved and undone as a whole.
+ */
+public class BulkDoneCommand extends Command {
+    private final TaskList taskList;
+    private final TextUi textUi;
+    private final String selection;
+
+    /**
+     * Constructor for BulkDoneCommand class.
+     *
+     * @param taskList TaskList in hyddd.
+     * @param textUi hyddd's UI.
+     * @param selection Indexes and ranges of indexes for the tasks, separated by commas.
+     */
+    public BulkDoneCommand(TaskList taskList, TextUi textUi, String selection) {
+        this.taskList = taskList;
+        this.textUi = textUi;
+        this.selection = selection;
+    }
+
+    /**
+     * Returns hyddd's response when user wants to mark a batch of tasks as done.
+     *
+     * @return hyddd's response.
+     */
+    @Override
+    public String returnResponse() {
+        return markAllDone();
+    }
+
+    private String markAllDone() {
+        int[] indexes = new Parser("").parseIndexes(selection, taskList.size());
+        if (indexes == null) {
+            return new HydddException(ExceptionType.WRONG_INDEX_ERROR).getErrorMessage();
+        }
+
+        int markedCount = taskList.markAllDone(indexes);
+        return textUi.markAllDoneUi(markedCount);
+    }
+}
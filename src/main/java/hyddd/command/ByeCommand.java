@@ -9,6 +9,7 @@ import hyddd.uimanager.TextUi;
  */
 public class ByeCommand extends Command {
     private final TextUi textUi;
+    private final Runnable exitHook;
 
     /**
      * Constructor for ByeCommand class.
@@ -16,7 +17,18 @@ public class ByeCommand extends Command {
      * @param textUi hyddd's UI.
      */
     public ByeCommand(TextUi textUi) {
+        this(textUi, () -> { });
+    }
+
+    /**
+     * Constructor for ByeCommand class with a hook to run before hyddd exits, e.g. to save unsaved changes.
+     *
+     * @param textUi hyddd's UI.
+     * @param exitHook Hook to run before hyddd exits.
+     */
+    public ByeCommand(TextUi textUi, Runnable exitHook) {
         this.textUi = textUi;
+        this.exitHook = exitHook;
     }
 
     /**
@@ -30,6 +42,7 @@ public class ByeCommand extends Command {
     }
 
     private String goodbye() {
+        exitHook.run();
         return textUi.goodbyeMessage();
     }
 }
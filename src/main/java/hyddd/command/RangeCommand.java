@@ -0,0 +1,60 @@
+package hyddd.command;
+
+import java.time.LocalDateTime;
+
+import hyddd.exceptions.ExceptionType;
+import hyddd.exceptions.HydddException;
+import hyddd.logics.Parser;
+import hyddd.task.TaskList;
+import hyddd.uimanager.TextUi;
+
+/**
+ * @@author Hang Zelin
+ *
+ * RangeCommand will handle the situation when a user wants to see the tasks in a period of time,
+ * e.g. "tell 2026-10-01 to 2026-10-31". The tasks are shown in the order of their time, a page at a time.
+ */
+public class RangeCommand extends Command {
+    private final TaskList taskList;
+    private final TextUi textUi;
+    private final String range;
+    private final int limit;
+    private final int page;
+
+    /**
+     * Constructor for RangeCommand class.
+     *
+     * @param taskList TaskList in hyddd.
+     * @param textUi hyddd's UI.
+     * @param range String value for the period users take in.
+     * @param limit Largest number of tasks to show at a time.
+     * @param page Page of tasks to show. The first page is page 1.
+     */
+    public RangeCommand(TaskList taskList, TextUi textUi, String range, int limit, int page) {
+        this.taskList = taskList;
+        this.textUi = textUi;
+        this.range = range;
+        this.limit = limit;
+        this.page = page;
+    }
+
+    /**
+     * Returns hyddd's response when user wants to see tasks in a period of time.
+     *
+     * @return hyddd's response.
+     */
+    @Override
+    public String returnResponse() {
+        LocalDateTime[] period = new Parser("").parseRange(range);
+        if (period == null) {
+            return new HydddException(ExceptionType.TELL_FORMAT_ERROR).getErrorMessage();
+        }
+        return tellRange(period[0], period[1]);
+    }
+
+    private String tellRange(LocalDateTime start, LocalDateTime end) {
+        int total = taskList.countTasksInPeriod(start, end);
+        return textUi.getTasksInPeriodUi() + taskList.getTasksInPeriod(start, end, limit, page)
+                + textUi.pageUi(total, limit, page);
+    }
+}
@@ -0,0 +1,35 @@
+package hyddd.command;
+
+import hyddd.metrics.Metrics;
+import hyddd.uimanager.TextUi;
+
+/**
+ * @@author Hang Zelin
+ *
+ * StatsCommand will handle the situation when a user wants to see how fast hyddd has been running each command.
+ */
+public class StatsCommand extends Command {
+    private final TextUi textUi;
+    private final Metrics metrics;
+
+    /**
+     * Constructor for StatsCommand class.
+     *
+     * @param textUi hyddd's UI.
+     * @param metrics Metrics of hyddd.
+     */
+    public StatsCommand(TextUi textUi, Metrics metrics) {
+        this.textUi = textUi;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the latencies and counters that hyddd has recorded.
+     *
+     * @return hyddd's response.
+     */
+    @Override
+    public String returnResponse() {
+        return textUi.statsUi() + metrics.getReport();
+    }
+}
@@ -0,0 +1,63 @@
+package hyddd.command;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import hyddd.exceptions.ExceptionType;
+import hyddd.exceptions.HydddException;
+import hyddd.logics.Parser;
+import hyddd.task.TaskList;
+import hyddd.uimanager.TextUi;
+
+/**
+ * @@author Hang Zelin
+ *
+ * UpcomingCommand will handle the situation when a user wants to see the tasks coming up in a window of time
+ * from now, e.g. "upcoming 7d". The tasks are shown in the order of their time, a page at a time.
+ */
+public class UpcomingCommand extends Command {
+    private final TaskList taskList;
+    private final TextUi textUi;
+    private final String window;
+    private final int limit;
+    private final int page;
+
+    /**
+     * Constructor for UpcomingCommand class.
+     *
+     * @param taskList TaskList in hyddd.
+     * @param textUi hyddd's UI.
+     * @param window String value for the window of time users take in.
+     * @param limit Largest number of tasks to show at a time.
+     * @param page Page of tasks to show. The first page is page 1.
+     */
+    public UpcomingCommand(TaskList taskList, TextUi textUi, String window, int limit, int page) {
+        this.taskList = taskList;
+        this.textUi = textUi;
+        this.window = window;
+        this.limit = limit;
+        this.page = page;
+    }
+
+    /**
+     * Returns hyddd's response when user wants to see tasks coming up.
+     *
+     * @return hyddd's response.
+     */
+    @Override
+    public String returnResponse() {
+        Duration length = new Parser("").parseWindow(window);
+        if (length == null) {
+            return new HydddException(ExceptionType.UPCOMING_FORMAT_ERROR).getErrorMessage();
+        }
+        return upcoming(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES), length);
+    }
+
+    private String upcoming(LocalDateTime now, Duration length) {
+        LocalDateTime end = now.plus(length);
+        int total = taskList.countTasksInPeriod(now, end);
+        return textUi.upcomingUi() + taskList.getTasksInPeriod(now, end, limit, page)
+                + textUi.pageUi(total, limit, page);
+    }
+}
@@ -37,6 +37,8 @@ public class HydddException extends Exception {
         break;
         case TELL_FORMAT_ERROR: errorMessage = "OOPS!!! I'm sorry, but the format of tell is wrong :-(";
         break;
+        case UPCOMING_FORMAT_ERROR: errorMessage = "OOPS!!! I'm sorry, but the format of upcoming is wrong :-(";
+        break;
         case EMPTY_COMMAND_ERROR: errorMessage = "OOPS!!! Sorry but I can't receive anything from you!!!";
         break;
         case DUPLICATE_TASK_ERROR: errorMessage = "OOPS!!! Sorry, but the task is undone in your taskList!!!";
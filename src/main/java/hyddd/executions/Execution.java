@@ -1,8 +1,11 @@
 package hyddd.executions;
 
 import java.util.ArrayList;
+import java.util.Set;
 
 import hyddd.command.AddCommand;
+import hyddd.command.BulkDeleteCommand;
+import hyddd.command.BulkDoneCommand;
 import hyddd.command.ByeCommand;
 import hyddd.command.Command;
 import hyddd.command.DeleteCommand;
@@ -10,10 +13,14 @@ import hyddd.command.DoneCommand;
 import hyddd.command.FindCommand;
 import hyddd.command.HelpCommand;
 import hyddd.command.ListCommand;
+import hyddd.command.RangeCommand;
+import hyddd.command.StatsCommand;
 import hyddd.command.TellCommand;
 import hyddd.command.UndoCommand;
+import hyddd.command.UpcomingCommand;
 import hyddd.exceptions.HydddException;
 import hyddd.logics.Parser;
+import hyddd.metrics.Metrics;
 import hyddd.task.TaskList;
 import hyddd.uimanager.TextUi;
 
@@ -29,12 +36,19 @@ public class Execution {
     private static final String DELETE = "delete";
     private static final String DONE = "done";
     private static final String TELL = "tell";
+    private static final String UPCOMING = "upcoming";
+    private static final String TO = " to ";
     private static final String FIND = "find";
     private static final String UNDO = "undo";
     private static final String HELP = "help";
+    private static final String STATS = "stats";
+    private static final Set<String> READ_ONLY_OPERATIONS = Set.of(LIST, TELL, UPCOMING, FIND, HELP, STATS);
+    private static final Metrics UNREPORTED_METRICS = new Metrics(); //Metrics of executions nobody asks for.
     private final TaskList taskList;
     private final TextUi textUi;
     private final Parser parser;
+    private final Runnable exitHook;
+    private final Metrics metrics;
 
     /**
      * Constructor of Execution
@@ -44,9 +58,36 @@ public class Execution {
      * @param parser Parser that will help split the command.
      */
     public Execution(TaskList taskList, TextUi textUi, Parser parser) {
+        this(taskList, textUi, parser, () -> { });
+    }
+
+    /**
+     * Constructor of Execution with a hook that is run when users say goodbye, e.g. to save unsaved changes.
+     *
+     * @param taskList the taskList hyddd uses to do operation.
+     * @param textUi Ui of hyddd
+     * @param parser Parser that will help split the command.
+     * @param exitHook Hook to run before hyddd exits.
+     */
+    public Execution(TaskList taskList, TextUi textUi, Parser parser, Runnable exitHook) {
+        this(taskList, textUi, parser, exitHook, UNREPORTED_METRICS);
+    }
+
+    /**
+     * Constructor of Execution that records how long each stage of the command takes in metrics.
+     *
+     * @param taskList the taskList hyddd uses to do operation.
+     * @param textUi Ui of hyddd
+     * @param parser Parser that will help split the command.
+     * @param exitHook Hook to run before hyddd exits.
+     * @param metrics Metrics to record the latencies in.
+     */
+    public Execution(TaskList taskList, TextUi textUi, Parser parser, Runnable exitHook, Metrics metrics) {
         this.taskList = taskList;
         this.textUi = textUi;
         this.parser = parser;
+        this.exitHook = exitHook;
+        this.metrics = metrics;
     }
 
     /**
@@ -60,10 +101,25 @@ public class Execution {
         return text;
     }
 
+    /**
+     * Returns true if the command only reads the TaskList, so that it can run alongside other such commands.
+     * A command that cannot be parsed only gives an error message, so it does not change the TaskList either.
+     *
+     * @return Boolean value indicates if the command only reads the TaskList.
+     */
+    public boolean isReadOnly() {
+        try {
+            return READ_ONLY_OPERATIONS.contains(parser.getOperationType());
+        } catch (HydddException e) {
+            return true;
+        }
+    }
+
     /**
      * Returns a String provided by user's specific command.
      * It makes use of Parse to split a line of command into 3 small pieces,
      * and put in specific command to get response.
+     * The time taken to parse, dispatch and execute the command is recorded in metrics.
      *
      * @return String value from a specifc Command.
      */
@@ -76,11 +132,15 @@ public class Execution {
         String hydddResponse;
         int index;
 
+        long startTime = System.nanoTime();
         try {
             parsedInputs = parser.returnSplitComponent();
         } catch (HydddException e) {
+            metrics.recordInvalidCommand(System.nanoTime() - startTime);
             return e.getErrorMessage();
         }
+        long parsedTime = System.nanoTime();
+        metrics.recordStage(Metrics.PARSE, parsedTime - startTime);
 
         assert parsedInputs.size() == 4 : "Error in Parser, should produce 4 key value for hyddd to execute!!";
 
@@ -89,8 +149,13 @@ public class Execution {
         time = parsedInputs.get(2);
         index = Integer.parseInt(parsedInputs.get(3));
         command = operationForhyddd(index, operationType, task, time);
+        long dispatchedTime = System.nanoTime();
+        metrics.recordStage(Metrics.DISPATCH, dispatchedTime - parsedTime);
 
         hydddResponse = command.returnResponse();
+        long executedTime = System.nanoTime();
+        metrics.recordStage(Metrics.EXECUTE, executedTime - dispatchedTime);
+        metrics.recordCommand(operationType, executedTime - startTime);
 
         return hydddResponse;
     }
@@ -110,15 +175,23 @@ public class Execution {
         String time = commands[2];
 
         switch (operationType) {
-        case BYE: command = new ByeCommand(textUi);
+        case BYE: command = new ByeCommand(textUi, exitHook);
         break;
         case LIST: command = new ListCommand(taskList);
         break;
-        case DONE: command = new DoneCommand(taskList, textUi, index);
+        case DONE: command = parser.isBulkSelection()
+                ? new BulkDoneCommand(taskList, textUi, task)
+                : new DoneCommand(taskList, textUi, index);
+        break;
+        case DELETE: command = parser.isBulkSelection()
+                ? new BulkDeleteCommand(taskList, textUi, task)
+                : new DeleteCommand(taskList, textUi, index);
         break;
-        case DELETE: command = new DeleteCommand(taskList, textUi, index);
+        case TELL: command = time.contains(TO) || parser.hasPaging()
+                ? new RangeCommand(taskList, textUi, time, parser.getLimit(), parser.getPage())
+                : new TellCommand(taskList, textUi, time);
         break;
-        case TELL: command = new TellCommand(taskList, textUi, time);
+        case UPCOMING: command = new UpcomingCommand(taskList, textUi, time, parser.getLimit(), parser.getPage());
         break;
         case FIND: command = new FindCommand(taskList, textUi, task);
         break;
@@ -126,6 +199,8 @@ public class Execution {
         break;
         case HELP: command = new HelpCommand(textUi);
         break;
+        case STATS: command = new StatsCommand(textUi, metrics);
+        break;
         default: command = new AddCommand(taskList, textUi, operationType, task, time);
         break;
         }
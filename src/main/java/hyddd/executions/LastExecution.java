@@ -1,13 +1,16 @@
 package hyddd.executions;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import hyddd.task.Task;
+import hyddd.task.TaskList;
 
 /**
  * @@author Hang Zelin
  *
  * It stores previous operation info and methods to undo previous operation.
+ * A bulk done or delete is stored as one operation on many tasks, so that it is undone as a whole.
  */
 public class LastExecution {
     //Constant values
@@ -16,9 +19,9 @@ public class LastExecution {
     private static final String DONE = "done";
 
     private final String lastOperation;
-    private final Task lastTask;
-    private final int lastIndex;
-    private final ArrayList<Task> tasks;
+    private final List<Task> lastTasks;
+    private final int[] lastIndexes;
+    private final TaskList tasks;
 
     /**
      * Constructor containing all last tasks.
@@ -28,30 +31,51 @@ public class LastExecution {
      * @param lastIndex user's previous index
      * @param tasks user's taskList.
      */
-    public LastExecution(String lastOperation, Task lastTask, int lastIndex, ArrayList<Task> tasks) {
+    public LastExecution(String lastOperation, Task lastTask, int lastIndex, TaskList tasks) {
+        this(lastOperation, Collections.singletonList(lastTask), new int[] {lastIndex}, tasks);
+    }
+
+    /**
+     * Constructor containing all the tasks of a bulk operation.
+     *
+     * @param lastOperation user's previous operation
+     * @param lastTasks user's previous tasks
+     * @param lastIndexes user's previous indexes of the tasks, in ascending order.
+     * @param tasks user's taskList.
+     */
+    public LastExecution(String lastOperation, List<Task> lastTasks, int[] lastIndexes, TaskList tasks) {
         this.lastOperation = lastOperation;
-        this.lastTask = lastTask;
-        this.lastIndex = lastIndex;
+        this.lastTasks = lastTasks;
+        this.lastIndexes = lastIndexes;
         this.tasks = tasks;
     }
 
     private String resetDone() {
         String text;
-        this.tasks.get(lastIndex).resetDone();
-        text = "Good! I have recovered your task to undone again!\n";
+        for (int lastIndex : lastIndexes) {
+            this.tasks.resetDone(lastIndex);
+        }
+        text = lastIndexes.length == 1
+                ? "Good! I have recovered your task to undone again!\n"
+                : "Good! I have recovered your " + lastIndexes.length + " tasks to undone again!\n";
         return text;
     }
 
     private String undoDelete() {
         String text;
-        this.tasks.add(lastIndex, lastTask);
-        text = "Good! I have helped recovered your deleted task!\n";;
+        //Every task is put back after the tasks before it, as the indexes are in ascending order.
+        for (int i = 0; i < lastIndexes.length; i++) {
+            this.tasks.restore(lastIndexes[i], lastTasks.get(i));
+        }
+        text = lastIndexes.length == 1
+                ? "Good! I have helped recovered your deleted task!\n"
+                : "Good! I have helped recovered your " + lastIndexes.length + " deleted tasks!\n";
         return text;
     }
 
     private String undoAdd() {
         String text;
-        this.tasks.remove(tasks.size() - 1);
+        this.tasks.removeLast();
         text = "Good! I have undone your newly added task!\n";;
         return text;
     }
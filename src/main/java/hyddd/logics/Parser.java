@@ -1,9 +1,11 @@
 package hyddd.logics;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.BitSet;
 
 import hyddd.exceptions.HydddException;
 /**
@@ -29,6 +31,17 @@ public class Parser {
     private static final String DEADLINE = "deadline";
     private static final String EVENT = "event";
     private static final String TELL = "tell";
+    private static final String UPCOMING = "upcoming";
+    private static final String DONE = "done";
+    private static final String DELETE = "delete";
+    private static final String COMMA = ",";
+    private static final String INDEX_SELECTION = "[0-9]+(-[0-9]+)?(,[0-9]+(-[0-9]+)?)*";
+    private static final String TO = " to ";
+    private static final String LIMIT = "/limit";
+    private static final String PAGE = "/page";
+    private static final String START_OF_DAY = " 0000";
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int DEFAULT_PAGE = 1;
     private static final char FIRST_LETTER_DEADLINE = 'D';
     private static final char FIRST_LETTER_EVENT = 'E';
     private final String input;
@@ -133,6 +146,74 @@ public class Parser {
         return parsedTime;
     }
 
+    /**
+     * Returns the period of time that a time users take in refers to, as an array of its start (inclusive)
+     * and its end (exclusive), or null if it is not a time. A time in the format of "dd/mm/yyyy hhmm"
+     * refers to that minute, while a date in the format of "yyyy-mm-dd" or "dd/mm/yyyy" refers to the whole day.
+     *
+     * @param time Time users take in to be parsed.
+     * @return Start and end of the period, or null if the time cannot be parsed.
+     */
+    public LocalDateTime[] parsePeriod(String time) {
+        LocalDateTime parsedTime;
+        try {
+            parsedTime = parseTime(time);
+            if (parsedTime != null && !time.contains(DASH)) {
+                return new LocalDateTime[] {parsedTime, parsedTime.plusMinutes(1)};
+            }
+            if (parsedTime == null && time.contains(SLASH)) {
+                parsedTime = parseTime(time.trim() + START_OF_DAY);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+
+        if (parsedTime == null) {
+            return null;
+        }
+        LocalDateTime startOfDay = parsedTime.toLocalDate().atStartOfDay();
+        return new LocalDateTime[] {startOfDay, startOfDay.plusDays(1)};
+    }
+
+    /**
+     * Returns the period of time from the start of one time to the end of another, e.g. "2026-10-01 to 2026-10-31"
+     * is from the start of 1 Oct to the end of 31 Oct. A single time is the same as a period from it to itself.
+     *
+     * @param range Range users take in to be parsed.
+     * @return Start (inclusive) and end (exclusive) of the period, or null if the range cannot be parsed.
+     */
+    public LocalDateTime[] parseRange(String range) {
+        int toIndex = range.indexOf(TO);
+        LocalDateTime[] from = parsePeriod(toIndex == -1 ? range : range.substring(0, toIndex));
+        LocalDateTime[] to = toIndex == -1 ? from : parsePeriod(range.substring(toIndex + TO.length()));
+        if (from == null || to == null || !from[0].isBefore(to[1])) {
+            return null;
+        }
+        return new LocalDateTime[] {from[0], to[1]};
+    }
+
+    /**
+     * Returns the length of a window of time users take in, e.g. "7d" for 7 days, "12h" for 12 hours and
+     * "2w" for 2 weeks. A number without a unit is in days.
+     *
+     * @param window Window users take in to be parsed.
+     * @return Length of the window, or null if the window cannot be parsed.
+     */
+    public Duration parseWindow(String window) {
+        if (!window.matches("[0-9]{1,6}[dhw]?")) {
+            return null;
+        }
+
+        char unit = window.charAt(window.length() - 1);
+        boolean hasUnit = !Character.isDigit(unit);
+        long amount = Long.parseLong(hasUnit ? window.substring(0, window.length() - 1) : window);
+        switch (unit) {
+        case 'h': return Duration.ofHours(amount);
+        case 'w': return Duration.ofDays(amount * 7);
+        default: return Duration.ofDays(amount);
+        }
+    }
+
     /**
      * Returns the key 4 information from users' input encapsulated in a ArrayList of String.
      * They are: operationType, task, time, index. They will be useful when executing in hyddd programme.
@@ -252,13 +333,74 @@ public class Parser {
             time = input.substring(input.lastIndexOf(BY) + 4);
         } else if (input.startsWith(EVENT)) {
             time = input.substring(input.lastIndexOf(AT) + 4);
-        } else if (input.startsWith(TELL)) {
-            time = input.substring(input.indexOf(SPACE) + 1);
+        } else if (input.startsWith(TELL) || input.startsWith(UPCOMING)) {
+            int startOfQuery = input.indexOf(SPACE) + 1;
+            time = input.substring(startOfQuery, Math.max(startOfQuery, returnEndOfQuery()));
         }
 
         return time;
     }
 
+    private int returnEndOfQuery() {
+        int endOfQuery = input.length();
+        for (String option : new String[] {LIMIT, PAGE}) {
+            int optionIndex = input.indexOf(SPACE + option + SPACE);
+            if (optionIndex != -1) {
+                endOfQuery = Math.min(endOfQuery, optionIndex);
+            }
+        }
+        return endOfQuery;
+    }
+
+    /**
+     * Returns the value after an option such as "/limit" in a line of command, or null if there is no such option.
+     *
+     * @param input One line of command.
+     * @param option Option to look for.
+     * @return Value of the option.
+     */
+    static String returnOptionValue(String input, String option) {
+        int optionIndex = input.indexOf(SPACE + option + SPACE);
+        if (optionIndex == -1) {
+            return null;
+        }
+
+        int valueStart = optionIndex + option.length() + 2;
+        int valueEnd = input.indexOf(SPACE, valueStart);
+        return valueEnd == -1 ? input.substring(valueStart) : input.substring(valueStart, valueEnd);
+    }
+
+    /**
+     * Returns whether users ask for a page of the results in a line of command.
+     *
+     * @return Boolean value indicates whether there is a "/limit" or "/page" option.
+     */
+    public boolean hasPaging() {
+        return returnOptionValue(input, LIMIT) != null || returnOptionValue(input, PAGE) != null;
+    }
+
+    /**
+     * Returns the largest number of results to show at a time, given by "/limit" in a line of command.
+     * Noted: the option must have been checked by getTime.
+     *
+     * @return Integer indicates the number of results in a page.
+     */
+    public int getLimit() {
+        String limit = returnOptionValue(input, LIMIT);
+        return limit == null ? DEFAULT_LIMIT : Integer.parseInt(limit);
+    }
+
+    /**
+     * Returns the page of results to show, given by "/page" in a line of command. The first page is page 1.
+     * Noted: the option must have been checked by getTime.
+     *
+     * @return Integer indicates the page of results.
+     */
+    public int getPage() {
+        String page = returnOptionValue(input, PAGE);
+        return page == null ? DEFAULT_PAGE : Integer.parseInt(page);
+    }
+
     /**
      * Returns a String which is index info in a line of command.
      * Noted: It is possible that index does not exist. This method will only be applicable for "tell", "find",
@@ -276,4 +418,47 @@ public class Parser {
 
         return index;
     }
+
+    /**
+     * Returns whether users select a batch of tasks instead of one index for "done" or "delete",
+     * e.g. "done 10-500", "delete 1,4,9" or "delete where done".
+     *
+     * @return Boolean value indicates whether the command selects a batch of tasks.
+     */
+    public boolean isBulkSelection() {
+        boolean isBulkOperation = input.startsWith(DONE + SPACE) || input.startsWith(DELETE + SPACE);
+        return isBulkOperation && !parserExceptionDetector.detectIndexException();
+    }
+
+    /**
+     * Returns the indexes selected by a list of indexes and ranges separated by commas, e.g. "1,4,9" or "10-500".
+     * The indexes users take in start from 1, while the indexes returned start from 0, in ascending order without
+     * repeats. Null is returned if the selection cannot be parsed or selects an index out of the list.
+     *
+     * @param selection Selection users take in.
+     * @param size Size of the list that the indexes are in.
+     * @return Selected indexes in ascending order.
+     */
+    public int[] parseIndexes(String selection, int size) {
+        String trimmedSelection = selection.replace(SPACE, EMPTY);
+        if (!trimmedSelection.matches(INDEX_SELECTION)) {
+            return null;
+        }
+
+        BitSet selectedIndexes = new BitSet();
+        try {
+            for (String part : trimmedSelection.split(COMMA)) {
+                int dashIndex = part.indexOf(DASH);
+                int start = Integer.parseInt(dashIndex == -1 ? part : part.substring(0, dashIndex));
+                int end = dashIndex == -1 ? start : Integer.parseInt(part.substring(dashIndex + 1));
+                if (start < 1 || end < start || end > size) {
+                    return null;
+                }
+                selectedIndexes.set(start - 1, end);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return selectedIndexes.stream().toArray();
+    }
 }
@@ -26,6 +26,10 @@ public class ParserExceptionDetector {
     private static final String EVENT = "event";
     private static final String FIND = "find";
     private static final String TELL = "tell";
+    private static final String UPCOMING = "upcoming";
+    private static final String LIMIT = "/limit";
+    private static final String PAGE = "/page";
+    private static final String POSITIVE_NUMBER = "[1-9][0-9]{0,8}";
     private final String input;
 
     /**
@@ -102,6 +106,8 @@ public class ParserExceptionDetector {
         boolean isEventFormat;
         boolean isTellFormat;
 
+        detectUpcomingException();
+        detectPagingException();
         isContainTime = input.startsWith(DEADLINE) || input.startsWith(EVENT) || input.startsWith(TELL);
         isDeadlineFormat = input.contains(SLASH) && input.contains(BY)
                 && (input.charAt(input.indexOf(SLASH) - 1) == ' ');;
@@ -126,6 +132,37 @@ public class ParserExceptionDetector {
         }
     }
 
+    private void detectUpcomingException() throws HydddException {
+        if (!input.startsWith(UPCOMING)) {
+            return;
+        }
+
+        String window = input.contains(SPACE) ? input.substring(input.indexOf(SPACE) + 1) : EMPTY;
+        if (window.contains(SPACE)) {
+            window = window.substring(0, window.indexOf(SPACE));
+        }
+        if (new Parser(EMPTY).parseWindow(window) == null) {
+            throw new HydddException(ExceptionType.UPCOMING_FORMAT_ERROR);
+        }
+    }
+
+    private void detectPagingException() throws HydddException {
+        if (!(input.startsWith(TELL) || input.startsWith(UPCOMING))) {
+            return;
+        }
+
+        for (String option : new String[] {LIMIT, PAGE}) {
+            String value = Parser.returnOptionValue(input, option);
+            boolean isMissingValue = value == null && input.endsWith(SPACE + option);
+            boolean isInvalidValue = value != null && !value.matches(POSITIVE_NUMBER);
+            if (isMissingValue || isInvalidValue) {
+                throw new HydddException(input.startsWith(TELL)
+                        ? ExceptionType.TELL_FORMAT_ERROR
+                        : ExceptionType.UPCOMING_FORMAT_ERROR);
+            }
+        }
+    }
+
     /**
      * Returns a boolean value of whether there is no index given to parser.
      *
@@ -0,0 +1,138 @@
+package hyddd.main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Runs hyddd without its window, e.g. for nightly imports and for measuring the performance of hyddd.
+ * Commands are read line by line from a script file, or from the standard input if no file is given,
+ * and the responses are written to the standard output through a buffer.
+ * Instead of saving after every command, the changes are saved every few commands and once at the end.
+ * Blank lines and lines starting with "#" are skipped, and the run stops after "bye".
+ * The changes are appended to the journal of the save data file, so that nothing is written between two saves,
+ * unless the system property "hyddd.journal" is "false".
+ * Usage: HeadlessRunner [--data filePath] [--save-every count] [scriptFile]
+ */
+public class HeadlessRunner {
+    //Constant values
+    private static final String FILEPATH = "tasks.txt";
+    private static final String DATA_OPTION = "--data";
+    private static final String SAVE_EVERY_OPTION = "--save-every";
+    private static final String JOURNAL_MODE_PROPERTY = "hyddd.journal";
+    private static final String STDIN = "-";
+    private static final String COMMENT = "#";
+    private static final String BYE = "bye";
+    private static final int DEFAULT_SAVE_EVERY = 0; //Only saves at the end.
+    private final Hyddd hyddd;
+    private final int saveEvery;
+
+    /**
+     * Initializes the runner with the hyddd that runs the commands.
+     *
+     * @param hyddd Hyddd that runs the commands.
+     * @param saveEvery Number of commands between two saves, or 0 to only save at the end.
+     */
+    public HeadlessRunner(Hyddd hyddd, int saveEvery) {
+        this.hyddd = hyddd;
+        this.saveEvery = saveEvery;
+    }
+
+    /**
+     * Runs all the commands in a script, or in the standard input, and saves the changes at the end.
+     *
+     * @param args Options and the script file to run.
+     */
+    public static void main(String[] args) {
+        String filePath = FILEPATH;
+        String scriptPath = STDIN;
+        int saveEvery = DEFAULT_SAVE_EVERY;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals(DATA_OPTION)) {
+                    filePath = args[++i];
+                } else if (args[i].equals(SAVE_EVERY_OPTION)) {
+                    saveEvery = Integer.parseInt(args[++i]);
+                } else {
+                    scriptPath = args[i];
+                }
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println("Usage: HeadlessRunner [--data filePath] [--save-every count] [scriptFile]");
+            System.exit(1);
+        }
+
+        boolean isJournalMode = Boolean.parseBoolean(System.getProperty(JOURNAL_MODE_PROPERTY, "true"));
+        Hyddd hyddd = new Hyddd(filePath, isJournalMode);
+        HeadlessRunner runner = new HeadlessRunner(hyddd, Math.max(saveEvery, 0));
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try (InputStream input = scriptPath.equals(STDIN) ? System.in : new FileInputStream(scriptPath)) {
+            long startTime = System.nanoTime();
+            int commandCount = runner.run(input, output);
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            System.err.println("Ran " + commandCount + " commands in " + elapsedMillis + " ms.");
+        } catch (IOException e) {
+            System.err.println("OOPS!!! I cannot read the commands: " + e.getMessage());
+            System.err.print(hyddd.close());
+            System.exit(1);
+        }
+        System.err.print(hyddd.close());
+    }
+
+    /**
+     * Runs all the commands read from input and writes the responses into output.
+     * The changes are saved every saveEvery commands and once at the end, and the output is flushed
+     * whenever the changes are saved.
+     *
+     * @param input Input that commands are read from.
+     * @param output Output that responses are written into.
+     * @return Integer indicates the number of commands run.
+     * @throws IOException Throws when the commands cannot be read or the responses cannot be written.
+     */
+    public int run(InputStream input, Writer output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int commandCount = 0;
+        try {
+            String line = reader.readLine();
+            while (line != null) {
+                String command = line.trim();
+                if (!command.isEmpty() && !command.startsWith(COMMENT)) {
+                    writeResponse(output, hyddd.execute(command));
+                    commandCount++;
+                    if (command.equals(BYE)) {
+                        break;
+                    }
+                    if (saveEvery > 0 && commandCount % saveEvery == 0) {
+                        writeResponse(output, hyddd.save());
+                        output.flush();
+                    }
+                }
+                line = reader.readLine();
+            }
+        } finally {
+            writeResponse(output, hyddd.save());
+            hyddd.flush(); //Lets a compaction started by the last save finish before the programme exits.
+            output.flush();
+        }
+        return commandCount;
+    }
+
+    private void writeResponse(Writer output, String response) throws IOException {
+        if (response.isEmpty()) {
+            return;
+        }
+
+        output.write(response);
+        if (!response.endsWith("\n")) {
+            output.write("\n");
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package hyddd.main;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import hyddd.exceptions.HydddException;
 import hyddd.executions.Execution;
 import hyddd.logics.Parser;
-import hyddd.saveloadmanager.Storage;
+import hyddd.metrics.Metrics;
+import hyddd.saveloadmanager.LsmEngine;
+import hyddd.saveloadmanager.PageStoreEngine;
+import hyddd.saveloadmanager.SaveFormat;
+import hyddd.saveloadmanager.StorageEngine;
+import hyddd.saveloadmanager.TextStorageEngine;
+import hyddd.task.Task;
 import hyddd.task.TaskList;
 import hyddd.uimanager.TextUi;
 
@@ -19,54 +28,234 @@ import hyddd.uimanager.TextUi;
  */
 public class Hyddd {
     private static final String FILEPATH = "tasks.txt";
-    private final Storage storage;
+    private static final String JOURNAL_MODE_PROPERTY = "hyddd.journal";
+    private static final String SAVE_FORMAT_PROPERTY = "hyddd.format";
+    private static final String COLUMNAR_MODE_PROPERTY = "hyddd.columnar";
+    private static final String LAZY_MODE_PROPERTY = "hyddd.lazy";
+    private static final String ENGINE_PROPERTY = "hyddd.engine";
+    private static final String TEXT_ENGINE = "text";
+    private static final String BTREE_ENGINE = "btree";
+    private static final String LSM_ENGINE = "lsm";
+    private final StorageEngine engine;
     private final TextUi textUi;
+    private final ReadWriteLock commandLock;
+    private final Metrics metrics;
     private TaskList tasks;
 
     /**
      * Initializes Ui, storage and load TaskLists from specific filePath for hyddd.
+     * Journal mode is on unless it is turned off by the system property "hyddd.journal".
      */
     public Hyddd() {
-        textUi = new TextUi();
-        storage = new Storage(FILEPATH);
+        this(FILEPATH, Boolean.parseBoolean(System.getProperty(JOURNAL_MODE_PROPERTY, "true")));
+    }
+
+    /**
+     * Initializes Ui, storage and load TaskLists from specific filePath for hyddd.
+     * Tasks are kept by the storage engine named by the system property "hyddd.engine", which is "text" for the
+     * TextStorageEngine by default, "btree" for the PageStoreEngine, or "lsm" for the LsmEngine.
+     * For the TextStorageEngine, data is saved in the text format unless the system property "hyddd.format" is
+     * "binary", tasks are kept in columns if the system property "hyddd.columnar" is "true", and read from the
+     * save data file only when they are used if the system property "hyddd.lazy" is "true".
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param isJournalMode Indicates if hyddd saves changes in journal mode.
+     */
+    public Hyddd(String filePath, boolean isJournalMode) {
+        this(new Metrics(), System.getProperty(ENGINE_PROPERTY, TEXT_ENGINE), filePath, isJournalMode,
+                SaveFormat.valueOf(System.getProperty(SAVE_FORMAT_PROPERTY, "text").toUpperCase()),
+                Boolean.parseBoolean(System.getProperty(COLUMNAR_MODE_PROPERTY, "false")),
+                Boolean.parseBoolean(System.getProperty(LAZY_MODE_PROPERTY, "false")));
+    }
+
+    /**
+     * Initializes Ui, storage and load TaskLists from specific filePath for hyddd, keeping tasks as objects.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param isJournalMode Indicates if hyddd saves changes in journal mode.
+     * @param saveFormat Format that data is saved in.
+     */
+    public Hyddd(String filePath, boolean isJournalMode, SaveFormat saveFormat) {
+        this(filePath, isJournalMode, saveFormat, false);
+    }
+
+    /**
+     * Initializes Ui, storage and load TaskLists from specific filePath for hyddd, reading all the tasks at once.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param isJournalMode Indicates if hyddd saves changes in journal mode.
+     * @param saveFormat Format that data is saved in.
+     * @param isColumnarMode Indicates if hyddd keeps tasks in columns.
+     */
+    public Hyddd(String filePath, boolean isJournalMode, SaveFormat saveFormat, boolean isColumnarMode) {
+        this(filePath, isJournalMode, saveFormat, isColumnarMode, false);
+    }
+
+    /**
+     * Initializes Ui, storage and load TaskLists from specific filePath for hyddd, keeping tasks with the
+     * TextStorageEngine.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param isJournalMode Indicates if hyddd saves changes in journal mode.
+     * @param saveFormat Format that data is saved in.
+     * @param isColumnarMode Indicates if hyddd keeps tasks in columns.
+     * @param isLazyMode Indicates if hyddd reads tasks only when they are used.
+     */
+    public Hyddd(String filePath, boolean isJournalMode, SaveFormat saveFormat, boolean isColumnarMode,
+            boolean isLazyMode) {
+        this(new Metrics(), TEXT_ENGINE, filePath, isJournalMode, saveFormat, isColumnarMode, isLazyMode);
+    }
+
+    private Hyddd(Metrics metrics, String engineName, String filePath, boolean isJournalMode, SaveFormat saveFormat,
+            boolean isColumnarMode, boolean isLazyMode) {
+        this(openEngine(metrics, engineName, filePath, isJournalMode, saveFormat, isColumnarMode, isLazyMode),
+                metrics);
+    }
+
+    private static StorageEngine openEngine(Metrics metrics, String engineName, String filePath,
+            boolean isJournalMode, SaveFormat saveFormat, boolean isColumnarMode, boolean isLazyMode) {
+        StorageEngine engine;
+        switch (engineName.toLowerCase()) {
+        case BTREE_ENGINE: engine = new PageStoreEngine(filePath, metrics);
+        break;
+        case LSM_ENGINE: engine = new LsmEngine(filePath, metrics);
+        break;
+        default: engine = new TextStorageEngine(filePath, isJournalMode, saveFormat, isColumnarMode, isLazyMode,
+                metrics);
+        break;
+        }
+        return engine;
+    }
+
+    /**
+     * Initializes Ui and load TaskLists with a storage engine for hyddd. If the engine cannot load the tasks,
+     * hyddd starts with an empty TaskList.
+     *
+     * @param engine StorageEngine that keeps the tasks.
+     * @param metrics Metrics that the engine records its saves in.
+     */
+    public Hyddd(StorageEngine engine, Metrics metrics) {
+        this.engine = engine;
+        this.textUi = new TextUi();
+        this.commandLock = new ReentrantReadWriteLock();
+        this.metrics = metrics;
+        metrics.register();
+        List<Task> loadedTasks;
         try {
-            tasks = new TaskList(storage.load());
+            loadedTasks = engine.load();
         } catch (HydddException e) {
-            tasks = new TaskList();
+            loadedTasks = TaskList.newTaskStore(false);
             e.getErrorMessage();
         }
+        tasks = new TaskList(loadedTasks);
+        engine.attach(tasks);
     }
 
     /**
-     * Updates a save data every time a round of execution is done.
+     * Updates a save data every time a round of execution is done, through the StorageEngine.
+     * Nothing is written if the TaskList has not been changed since it was last saved, e.g. after "list".
      */
     public String updateSaveData() {
         String text = "";
         try {
-            storage.saveListDataToFile(tasks);
+            engine.commit();
         } catch (IOException e) {
             text = textUi.showSavingError();
         }
         return text;
     }
 
+    /**
+     * Saves all the changes that are not saved yet before hyddd exits, and waits for any work in the background.
+     */
+    public void flush() {
+        engine.flush();
+    }
+
     /**
      * Runs the programme of hyddd. It will firstly say Hello to users. Then it will repeatedly accept input from
      * users and filter out key commands, then call OperationForhyddd to execute a task by commands.
      * The process will not stop until users enter "goodbye".
      * Noted: Every time an execution is done, the saveData will be updated.
+     * It can be called from many threads at once, e.g. by the clients of HydddServer. Commands that only read
+     * the TaskList run alongside each other, while a command that changes it runs alone. The TaskList locks
+     * each change on its own, so that the BackgroundSaver never copies a TaskList that is halfway through one.
      *
      * @param input Input user take in.
      * @return Response hyddd gives.
      */
     public String getResponse(String input) {
-        Parser parser = new Parser(input);
-        Execution execution = new Execution(tasks, textUi, parser);
-        String hydddResponse;
+        return runCommand(input, true);
+    }
+
+    /**
+     * Runs one line of command without saving its changes, e.g. for a batch of commands that is saved as a whole.
+     * The changes are saved by the next call to save or getResponse.
+     *
+     * @param input Input user take in.
+     * @return Response hyddd gives.
+     */
+    public String execute(String input) {
+        return runCommand(input, false);
+    }
 
-        hydddResponse = execution.executionResponse();
-        hydddResponse += updateSaveData(); //Update the SaveData every time a round of operation is done.
+    private String runCommand(String input, boolean isSaving) {
+        Execution execution = new Execution(tasks, textUi, new Parser(input), this::flush, metrics);
+        if (execution.isReadOnly()) {
+            commandLock.readLock().lock();
+            try {
+                return execution.executionResponse();
+            } finally {
+                commandLock.readLock().unlock();
+            }
+        }
 
+        String hydddResponse;
+        commandLock.writeLock().lock();
+        try {
+            hydddResponse = execution.executionResponse();
+            if (isSaving) {
+                hydddResponse += updateSaveData(); //Update the SaveData every time a round of operation is done.
+            }
+        } finally {
+            commandLock.writeLock().unlock();
+        }
         return hydddResponse;
     }
+
+    /**
+     * Saves all the changes that are not saved yet. A running compaction is left to finish in the background.
+     *
+     * @return Error message if the changes cannot be saved, or an empty String.
+     */
+    public String save() {
+        commandLock.writeLock().lock();
+        try {
+            engine.save();
+            return "";
+        } catch (IOException e) {
+            return textUi.showSavingError();
+        } finally {
+            commandLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Saves all the changes that are not saved yet and closes the StorageEngine, when hyddd exits for good.
+     * Unlike flush, which runs on "bye" while a HydddServer keeps serving its other clients, hyddd cannot be used
+     * after it is closed.
+     *
+     * @return Error message if the changes cannot be saved, or an empty String.
+     */
+    public String close() {
+        commandLock.writeLock().lock();
+        try {
+            engine.close();
+            return "";
+        } catch (IOException e) {
+            return textUi.showSavingError();
+        } finally {
+            commandLock.writeLock().unlock();
+        }
+    }
 }
@@ -0,0 +1,224 @@
+package hyddd.main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Serves one hyddd to many local clients, so that several tools on the same machine share one TaskList
+ * and one save data file instead of loading the save data file separately.
+ * The server listens on the loopback address, and every client sends one command per line, exactly as it
+ * is typed into hyddd. The response to every command is sent back line by line and ends with a line of ".".
+ * A line of the response that starts with "." is sent with one more "." in front, which the client removes.
+ * The connection is closed after "bye". When the programme is stopped, the server stops accepting clients,
+ * waits for every client to finish the command it is running, and only then closes the files of hyddd.
+ * Every connection is served on its own virtual thread when the Java runtime has them, or on a thread of
+ * a cached pool otherwise. Hyddd lets commands that only read the TaskList run alongside each other.
+ * Note: All the clients share one session of hyddd. "undo" undoes the most recent change made by any client,
+ * not the most recent change of the client that sends it. "bye" from a client still runs the flush of hyddd,
+ * which waits for the saves in the background, but only closes the connection of that client.
+ * Usage: HydddServer [--data filePath] [--port port]
+ */
+public class HydddServer {
+    //Constant values
+    static final String END_OF_RESPONSE = ".";
+    private static final String FILEPATH = "tasks.txt";
+    private static final String DATA_OPTION = "--data";
+    private static final String PORT_OPTION = "--port";
+    private static final String JOURNAL_MODE_PROPERTY = "hyddd.journal";
+    private static final String BYE = "bye";
+    private static final int DEFAULT_PORT = 7878;
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+    private final Hyddd hyddd; //Shared by all the clients, together with its undo.
+    private final ExecutorService executor;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean isStopped;
+
+    /**
+     * Initializes the server that serves hyddd.
+     *
+     * @param hyddd Hyddd shared by all the clients.
+     */
+    public HydddServer(Hyddd hyddd) {
+        this.hyddd = hyddd;
+        this.executor = newConnectionExecutor();
+    }
+
+    /**
+     * Starts the server, and serves clients until the programme is stopped.
+     *
+     * @param args Options of the server.
+     */
+    public static void main(String[] args) {
+        String filePath = FILEPATH;
+        int port = DEFAULT_PORT;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals(DATA_OPTION)) {
+                    filePath = args[++i];
+                } else if (args[i].equals(PORT_OPTION)) {
+                    port = Integer.parseInt(args[++i]);
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Usage: HydddServer [--data filePath] [--port port]");
+            System.exit(1);
+        }
+
+        boolean isJournalMode = Boolean.parseBoolean(System.getProperty(JOURNAL_MODE_PROPERTY, "true"));
+        Hyddd hyddd = new Hyddd(filePath, isJournalMode);
+        HydddServer server = new HydddServer(hyddd);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop(); //No command may run once hyddd is closed.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.err.print(hyddd.close());
+        }));
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            System.err.println("hyddd is listening on port " + serverSocket.getLocalPort() + ".");
+            server.serve(serverSocket);
+        } catch (IOException e) {
+            System.err.println("OOPS!!! hyddd cannot listen on port " + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns an executor that runs every task on a new virtual thread. Virtual threads are only created
+     * through reflection, so that hyddd still runs on a Java runtime without them, where a cached pool
+     * of daemon threads is used instead.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "hyddd-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Accepts clients from serverSocket and serves each of them on its own thread until serverSocket is closed.
+     *
+     * @param serverSocket Socket that clients connect to.
+     */
+    public void serve(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+        if (isStopped) {
+            closeQuietly(serverSocket);
+        }
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                clients.add(socket);
+                if (isStopped) {
+                    clients.remove(socket);
+                    closeQuietly(socket); //Missed by stop, which has already looked at the clients.
+                    break;
+                }
+                try {
+                    executor.execute(() -> serveClient(socket));
+                } catch (RejectedExecutionException e) {
+                    clients.remove(socket);
+                    closeQuietly(socket); //The server has just been stopped.
+                }
+            }
+        } catch (IOException e) {
+            //The server socket is closed.
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Stops accepting clients and waits for every client to finish the command it is running, e.g. before
+     * hyddd is closed. No more commands are read from the clients, and their connections are closed once
+     * their responses are sent.
+     *
+     * @return Boolean value indicates if every client has finished before the timeout.
+     * @throws InterruptedException Throws when the calling thread is interrupted while waiting.
+     */
+    public boolean stop() throws InterruptedException {
+        isStopped = true;
+        ServerSocket listeningSocket = serverSocket;
+        if (listeningSocket != null) {
+            closeQuietly(listeningSocket);
+        }
+        executor.shutdown();
+        for (Socket socket : clients) {
+            try {
+                socket.shutdownInput(); //The command being run still sends its response.
+            } catch (IOException e) {
+                //The client has gone away.
+            }
+        }
+        return executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            //It is closed already.
+        }
+    }
+
+    private void serveClient(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true); //Every response is flushed as a whole, so it need not wait for more data.
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            while (line != null) {
+                String command = line.trim();
+                writeResponse(writer, hyddd.getResponse(command));
+                if (command.equals(BYE)) {
+                    break;
+                }
+                line = reader.readLine();
+            }
+        } catch (IOException e) {
+            //The client has gone away.
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    private void writeResponse(Writer writer, String response) throws IOException {
+        for (String responseLine : response.split("\n")) {
+            if (responseLine.startsWith(END_OF_RESPONSE)) {
+                writer.write(END_OF_RESPONSE);
+            }
+            writer.write(responseLine);
+            writer.write("\n");
+        }
+        writer.write(END_OF_RESPONSE + "\n");
+        writer.flush();
+    }
+}
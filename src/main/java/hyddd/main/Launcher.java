@@ -1,13 +1,28 @@
 package hyddd.main;
 
+import java.util.Arrays;
+
 import hyddd.uimanager.Main;
 import javafx.application.Application;
 
 /**
  * The main class to launch GUI of Duke.
+ * With "--headless" as the first argument, hyddd runs the commands of a script without its GUI instead,
+ * and with "--server" as the first argument, hyddd serves local clients without its GUI.
  */
 public class Launcher {
+    private static final String HEADLESS_OPTION = "--headless";
+    private static final String SERVER_OPTION = "--server";
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(HEADLESS_OPTION)) {
+            HeadlessRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SERVER_OPTION)) {
+            HydddServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
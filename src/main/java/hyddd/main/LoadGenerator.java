@@ -0,0 +1,150 @@
+package hyddd.main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A client of HydddServer that measures how many commands hyddd serves every second.
+ * Every client sends its commands one at a time and waits for each response, so the measured rate
+ * includes the round trip. Most commands only read the TaskList, e.g. "find" and "tell", and the rest add
+ * a new deadline, so that the load looks like several tools watching one TaskList.
+ * Usage: LoadGenerator [--port port] [--clients count] [--commands count] [--writes percentage]
+ */
+public class LoadGenerator {
+    //Constant values
+    private static final String PORT_OPTION = "--port";
+    private static final String CLIENTS_OPTION = "--clients";
+    private static final String COMMANDS_OPTION = "--commands";
+    private static final String WRITES_OPTION = "--writes";
+    private static final String[] READ_COMMANDS = {"find load", "tell 2/12/2019", "upcoming 7d /limit 10"};
+    private static final int DEFAULT_PORT = 7878;
+    private static final int DEFAULT_CLIENTS = 8;
+    private static final int DEFAULT_COMMANDS = 1000;
+    private static final int DEFAULT_WRITES = 10;
+    private final int port;
+    private final int writePercentage;
+    private final AtomicLong failedCount;
+
+    /**
+     * Initializes the load generator.
+     *
+     * @param port Port of the server on this machine.
+     * @param writePercentage Percentage of the commands that add a task.
+     */
+    public LoadGenerator(int port, int writePercentage) {
+        this.port = port;
+        this.writePercentage = writePercentage;
+        this.failedCount = new AtomicLong();
+    }
+
+    /**
+     * Runs the clients against the server and prints the number of commands served every second.
+     *
+     * @param args Options of the load generator.
+     * @throws InterruptedException Throws when interrupted while waiting for the clients.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = DEFAULT_PORT;
+        int clientCount = DEFAULT_CLIENTS;
+        int commandCount = DEFAULT_COMMANDS;
+        int writePercentage = DEFAULT_WRITES;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case PORT_OPTION: port = Integer.parseInt(args[++i]);
+                break;
+                case CLIENTS_OPTION: clientCount = Integer.parseInt(args[++i]);
+                break;
+                case COMMANDS_OPTION: commandCount = Integer.parseInt(args[++i]);
+                break;
+                case WRITES_OPTION: writePercentage = Integer.parseInt(args[++i]);
+                break;
+                default: throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Usage: LoadGenerator [--port port] [--clients count] [--commands count]"
+                    + " [--writes percentage]");
+            System.exit(1);
+        }
+
+        LoadGenerator generator = new LoadGenerator(port, writePercentage);
+        long startTime = System.nanoTime();
+        long servedCount = generator.run(clientCount, commandCount);
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%d clients served %d commands in %.2f s: %.0f commands/s, %d failed.%n",
+                clientCount, servedCount, elapsedSeconds, servedCount / elapsedSeconds, generator.failedCount.get());
+    }
+
+    /**
+     * Runs clients that each send commandCount commands, and waits for all of them to finish.
+     *
+     * @param clientCount Number of clients.
+     * @param commandCount Number of commands every client sends.
+     * @return Long value indicates the number of commands served.
+     * @throws InterruptedException Throws when interrupted while waiting for the clients.
+     */
+    public long run(int clientCount, int commandCount) throws InterruptedException {
+        AtomicLong servedCount = new AtomicLong();
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < clientCount; c++) {
+            int clientNumber = c;
+            Thread client = new Thread(() -> servedCount.addAndGet(runClient(clientNumber, commandCount)),
+                    "hyddd-load-" + c);
+            clients.add(client);
+            client.start();
+        }
+
+        for (Thread client : clients) {
+            client.join();
+        }
+        return servedCount.get();
+    }
+
+    private long runClient(int clientNumber, int commandCount) {
+        Random random = new Random(clientNumber);
+        long servedCount = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8));
+            for (int i = 0; i < commandCount; i++) {
+                String command = random.nextInt(100) < writePercentage
+                        ? "deadline load " + clientNumber + " " + i + " /by 2/12/2019 1800"
+                        : READ_COMMANDS[random.nextInt(READ_COMMANDS.length)];
+                writer.write(command + "\n");
+                writer.flush();
+                readResponse(reader);
+                servedCount++;
+            }
+        } catch (IOException e) {
+            failedCount.incrementAndGet();
+        }
+        return servedCount;
+    }
+
+    private void readResponse(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && !line.equals(HydddServer.END_OF_RESPONSE)) {
+            line = reader.readLine();
+        }
+        if (line == null) {
+            throw new IOException("The server closed the connection.");
+        }
+    }
+}
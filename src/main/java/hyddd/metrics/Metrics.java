@@ -0,0 +1,191 @@
+package hyddd.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Keeps the metrics of hyddd: a latency histogram of every command type, a latency histogram of every stage
+ * a command goes through, i.e. parse, dispatch, execute and save, counters of saves and bytes written, and
+ * counters of compactions and the bytes they reclaimed.
+ * The latency of a command runs from parsing it to its response, and saving is recorded as a stage of its own.
+ * Every metric can be recorded from many threads without locking. The metrics are shown by the stats command,
+ * and through JMX once the Metrics is registered.
+ */
+public class Metrics implements MetricsMBean {
+    //Constant values
+    public static final String PARSE = "parse";
+    public static final String DISPATCH = "dispatch";
+    public static final String EXECUTE = "execute";
+    public static final String SAVE = "save";
+    public static final String JOURNAL = "journal";
+    public static final String COMPACTION = "compaction";
+    public static final String PAGES = "pages";
+    public static final String SEGMENT = "segment";
+    private static final String INVALID = "invalid";
+    private static final String OBJECT_NAME = "hyddd:type=Metrics";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private final Map<String, LatencyHistogram> commandLatencies;
+    private final Map<String, LatencyHistogram> stageLatencies;
+    private final LongAdder saveCount;
+    private final LongAdder bytesWritten;
+    private final LongAdder compactionCount;
+    private final LongAdder bytesReclaimed;
+
+    /**
+     * Initializes empty metrics.
+     */
+    public Metrics() {
+        this.commandLatencies = new ConcurrentHashMap<>();
+        this.stageLatencies = new ConcurrentHashMap<>();
+        this.saveCount = new LongAdder();
+        this.bytesWritten = new LongAdder();
+        this.compactionCount = new LongAdder();
+        this.bytesReclaimed = new LongAdder();
+    }
+
+    /**
+     * Registers the metrics in the platform MBeanServer, replacing the metrics of an earlier hyddd if any.
+     * The metrics are still recorded if they cannot be registered.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException | SecurityException e) {
+            //JMX is not available, e.g. in a restricted runtime.
+        }
+    }
+
+    /**
+     * Records the latency of a command from parsing it to its response.
+     *
+     * @param operationType Type of the command, e.g. "list".
+     * @param nanos Latency in nanoseconds.
+     */
+    public void recordCommand(String operationType, long nanos) {
+        commandLatencies.computeIfAbsent(operationType, type -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records the latency of a command that cannot be parsed.
+     *
+     * @param nanos Latency in nanoseconds.
+     */
+    public void recordInvalidCommand(long nanos) {
+        recordCommand(INVALID, nanos);
+    }
+
+    /**
+     * Records the latency of a stage, e.g. parsing a command.
+     *
+     * @param stage Name of the stage.
+     * @param nanos Latency in nanoseconds.
+     */
+    public void recordStage(String stage, long nanos) {
+        stageLatencies.computeIfAbsent(stage, name -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records a write of the save data file or the journal.
+     *
+     * @param stage Stage of the write, i.e. SAVE or JOURNAL.
+     * @param nanos Latency in nanoseconds.
+     * @param bytes Number of bytes written.
+     */
+    public void recordWrite(String stage, long nanos, long bytes) {
+        recordStage(stage, nanos);
+        saveCount.increment();
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records a compaction, which folds the journal into a new save data file.
+     *
+     * @param nanos Duration of the compaction in nanoseconds.
+     * @param bytes Number of bytes the save data file and the journal shrank by.
+     */
+    public void recordCompaction(long nanos, long bytes) {
+        recordStage(COMPACTION, nanos);
+        compactionCount.increment();
+        bytesReclaimed.add(bytes);
+    }
+
+    @Override
+    public long getCommandCount() {
+        return commandLatencies.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(INVALID))
+                .mapToLong(entry -> entry.getValue().getCount())
+                .sum();
+    }
+
+    @Override
+    public long getInvalidCommandCount() {
+        LatencyHistogram invalidLatencies = commandLatencies.get(INVALID);
+        return invalidLatencies == null ? 0 : invalidLatencies.getCount();
+    }
+
+    @Override
+    public long getSaveCount() {
+        return saveCount.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getCompactionCount() {
+        return compactionCount.sum();
+    }
+
+    @Override
+    public long getBytesReclaimed() {
+        return bytesReclaimed.sum();
+    }
+
+    @Override
+    public String[] getLatencies() {
+        List<String> lines = new ArrayList<>();
+        new TreeMap<>(commandLatencies).forEach((type, latencies) -> lines.add(formatLatencies(type, latencies)));
+        new TreeMap<>(stageLatencies).forEach((stage, latencies) -> lines.add(formatLatencies(stage, latencies)));
+        return lines.toArray(new String[0]);
+    }
+
+    private static String formatLatencies(String name, LatencyHistogram latencies) {
+        return String.format("%s: %d, %.3f ms, %.3f ms, %.3f ms", name, latencies.getCount(),
+                latencies.getPercentile(50) / NANOS_PER_MILLI, latencies.getPercentile(99) / NANOS_PER_MILLI,
+                latencies.getMax() / NANOS_PER_MILLI);
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder text = new StringBuilder();
+        text.append("Commands (count, p50, p99, max):\n");
+        new TreeMap<>(commandLatencies).forEach((type, latencies) ->
+                text.append(" ").append(formatLatencies(type, latencies)).append("\n"));
+        text.append("Stages (count, p50, p99, max):\n");
+        new TreeMap<>(stageLatencies).forEach((stage, latencies) ->
+                text.append(" ").append(formatLatencies(stage, latencies)).append("\n"));
+        text.append("Saves: ").append(getSaveCount()).append(", bytes written: ").append(getBytesWritten())
+                .append("\n");
+        text.append("Compactions: ").append(getCompactionCount()).append(", bytes reclaimed: ")
+                .append(getBytesReclaimed()).append("\n");
+        return text.toString();
+    }
+}
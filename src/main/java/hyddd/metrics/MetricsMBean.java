@@ -0,0 +1,35 @@
+package hyddd.metrics;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Management interface of Metrics, so that the metrics of a running hyddd can be watched through JMX,
+ * e.g. with JConsole, under the name "hyddd:type=Metrics".
+ */
+public interface MetricsMBean {
+    long getCommandCount();
+
+    long getInvalidCommandCount();
+
+    long getSaveCount();
+
+    long getBytesWritten();
+
+    long getCompactionCount();
+
+    long getBytesReclaimed();
+
+    /**
+     * Returns one line of count, p50, p99 and max latency for every command type and every stage.
+     *
+     * @return Lines of latencies.
+     */
+    String[] getLatencies();
+
+    /**
+     * Returns the same report as the stats command.
+     *
+     * @return Report of all the metrics.
+     */
+    String getReport();
+}
@@ -0,0 +1,459 @@
+package hyddd.saveloadmanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A file of fixed-size pages that keeps records in a B+ tree, in the order of their keys.
+ * Page 0 is the header, which records the root and the number of pages. Every other page is a node: a leaf keeps
+ * records, each a key followed by its bytes, and links to the next leaf, while an inner node keeps the keys that
+ * separate its children. A record is updated in the leaf it is in, so a change of one record writes one page,
+ * unless the leaf has to be split. Nodes are never merged, so a leaf emptied by deletes stays in the tree.
+ * Changes are kept in memory until commit, which writes the changed pages into a write-ahead file first and then
+ * into their places, so that a crash while writing the pages leaves them to be written again when the file
+ * is opened. The write-ahead file is forced to the disk before any page is written into its place, and the pages
+ * are forced before the write-ahead file is deleted, so a commit that has returned also survives a power loss.
+ */
+class BTreePageStore {
+    //Constant values
+    static final int MAX_RECORD_SIZE = 1000;
+    private static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x48594442; //"HYDB"
+    private static final int HEADER_PAGE = 0;
+    private static final int NO_PAGE = -1;
+    private static final int NODE_HEADER_SIZE = 7;
+    private static final int LEAF_ENTRY_SIZE = 10;
+    private static final int INNER_ENTRY_SIZE = 12;
+    private static final int MAX_CACHED_PAGES = 1024;
+    private static final int COMMIT_MARKER = -1;
+    private static final String WAL_SUFFIX = ".wal";
+    private final FileChannel channel;
+    private final String walPath;
+    private final Map<Integer, Node> cachedNodes;
+    private final TreeMap<Integer, Node> dirtyNodes;
+    private int rootPage;
+    private int pageCount;
+    private boolean isHeaderDirty;
+
+    private BTreePageStore(FileChannel channel, String walPath) {
+        this.channel = channel;
+        this.walPath = walPath;
+        this.cachedNodes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+        this.dirtyNodes = new TreeMap<>();
+    }
+
+    /**
+     * Opens the page file in filePath, creating an empty one if there is none, and writes the pages of a commit
+     * that was cut off by a crash.
+     *
+     * @param filePath FilePath of the page file.
+     * @return The opened page file.
+     * @throws IOException Throws when the file cannot be opened, or is not a page file.
+     */
+    static BTreePageStore open(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BTreePageStore store = new BTreePageStore(channel, filePath + WAL_SUFFIX);
+        try {
+            store.recover();
+            if (channel.size() == 0) {
+                store.pageCount = 1;
+                store.rootPage = store.newNode(true).pageNumber;
+                store.commit();
+            } else {
+                store.readHeader();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer page = readPage(HEADER_PAGE);
+        if (page.getInt() != MAGIC || page.getInt() != PAGE_SIZE) {
+            throw new IOException("The file is not a hyddd page store.");
+        }
+        rootPage = page.getInt();
+        pageCount = page.getInt();
+    }
+
+    private ByteBuffer readPage(int pageNumber) throws IOException {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        while (page.hasRemaining()) {
+            if (channel.read(page, (long) pageNumber * PAGE_SIZE + page.position()) == -1) {
+                throw new EOFException("Page " + pageNumber + " is missing from the page store.");
+            }
+        }
+        page.flip();
+        return page;
+    }
+
+    /**
+     * Adds a record, or replaces the record with the same key.
+     *
+     * @param key Key of the record.
+     * @param value Bytes of the record, at most MAX_RECORD_SIZE of them.
+     * @throws IOException Throws when the record is too long, or a page cannot be read.
+     */
+    void put(long key, byte[] value) throws IOException {
+        if (value.length > MAX_RECORD_SIZE) {
+            throw new IOException("A record of " + value.length + " bytes is too long for the page store.");
+        }
+
+        List<Node> path = findPath(key);
+        Node leaf = path.get(path.size() - 1);
+        int index = Collections.binarySearch(leaf.keys, key);
+        if (index >= 0) {
+            leaf.values.set(index, value);
+        } else {
+            index = -index - 1;
+            leaf.keys.add(index, key);
+            leaf.values.add(index, value);
+        }
+        markDirty(leaf);
+        splitIfFull(path, key);
+    }
+
+    /**
+     * Removes the record with a key, if there is one.
+     *
+     * @param key Key of the record.
+     * @throws IOException Throws when a page cannot be read.
+     */
+    void delete(long key) throws IOException {
+        List<Node> path = findPath(key);
+        Node leaf = path.get(path.size() - 1);
+        int index = Collections.binarySearch(leaf.keys, key);
+        if (index >= 0) {
+            leaf.keys.remove(index);
+            leaf.values.remove(index);
+            markDirty(leaf);
+        }
+    }
+
+    /**
+     * Gives every record to a consumer in the order of their keys.
+     *
+     * @param consumer Consumer of the bytes and the key of every record.
+     * @throws IOException Throws when a page cannot be read.
+     */
+    void scan(ObjLongConsumer<byte[]> consumer) throws IOException {
+        Node node = readNode(rootPage);
+        while (!node.isLeaf) {
+            node = readNode(node.children.get(0));
+        }
+
+        while (true) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                consumer.accept(node.values.get(i), node.keys.get(i));
+            }
+            if (node.nextLeaf == NO_PAGE) {
+                return;
+            }
+            node = readNode(node.nextLeaf);
+        }
+    }
+
+    /**
+     * Returns the nodes from the root down to the leaf where a key belongs.
+     */
+    private List<Node> findPath(long key) throws IOException {
+        List<Node> path = new ArrayList<>();
+        Node node = readNode(rootPage);
+        path.add(node);
+        while (!node.isLeaf) {
+            node = readNode(node.children.get(childIndex(node, key)));
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the position of the child of an inner node where a key belongs. The child after a separating key
+     * holds the keys from that key on.
+     */
+    private static int childIndex(Node node, long key) {
+        int index = Collections.binarySearch(node.keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Splits the nodes on the path that no longer fit in a page, from the leaf up. A leaf that a key is appended to
+     * the end of the tree is split after all its other records, so that pages filled in the order of their keys,
+     * e.g. by adding tasks, are left full instead of half full.
+     */
+    private void splitIfFull(List<Node> path, long key) throws IOException {
+        for (int level = path.size() - 1; level >= 0; level--) {
+            Node node = path.get(level);
+            if (node.returnSize() <= PAGE_SIZE) {
+                return;
+            }
+
+            Node right = newNode(node.isLeaf);
+            long separator;
+            if (node.isLeaf) {
+                boolean isAppended = node.nextLeaf == NO_PAGE && node.keys.get(node.keys.size() - 1) == key;
+                int splitIndex = isAppended ? node.keys.size() - 1 : returnMiddleIndex(node);
+                moveTail(node.keys, right.keys, splitIndex);
+                moveTail(node.values, right.values, splitIndex);
+                right.nextLeaf = node.nextLeaf;
+                node.nextLeaf = right.pageNumber;
+                separator = right.keys.get(0);
+            } else {
+                int middle = node.keys.size() / 2;
+                separator = node.keys.get(middle);
+                moveTail(node.keys, right.keys, middle + 1);
+                node.keys.remove(middle);
+                moveTail(node.children, right.children, middle + 1);
+            }
+            markDirty(node);
+
+            if (level == 0) {
+                Node root = newNode(false);
+                root.children.add(node.pageNumber);
+                root.keys.add(separator);
+                root.children.add(right.pageNumber);
+                rootPage = root.pageNumber;
+                continue;
+            }
+            Node parent = path.get(level - 1);
+            int position = parent.children.indexOf(node.pageNumber);
+            parent.keys.add(position, separator);
+            parent.children.add(position + 1, right.pageNumber);
+            markDirty(parent);
+        }
+    }
+
+    /**
+     * Returns the index of the record that splits the bytes of a leaf in half.
+     */
+    private static int returnMiddleIndex(Node leaf) {
+        int half = leaf.returnSize() / 2;
+        int size = NODE_HEADER_SIZE;
+        for (int i = 0; i < leaf.keys.size(); i++) {
+            size += LEAF_ENTRY_SIZE + leaf.values.get(i).length;
+            if (size > half) {
+                return Math.max(i, 1);
+            }
+        }
+        return leaf.keys.size() - 1;
+    }
+
+    private static <T> void moveTail(List<T> from, List<T> to, int fromIndex) {
+        List<T> tail = from.subList(fromIndex, from.size());
+        to.addAll(tail);
+        tail.clear();
+    }
+
+    private Node newNode(boolean isLeaf) {
+        Node node = new Node(pageCount++, isLeaf);
+        isHeaderDirty = true;
+        markDirty(node);
+        return node;
+    }
+
+    private void markDirty(Node node) {
+        dirtyNodes.put(node.pageNumber, node);
+    }
+
+    private Node readNode(int pageNumber) throws IOException {
+        Node node = dirtyNodes.get(pageNumber);
+        if (node == null) {
+            node = cachedNodes.get(pageNumber);
+        }
+        if (node == null) {
+            node = Node.decode(pageNumber, readPage(pageNumber));
+            cachedNodes.put(pageNumber, node);
+        }
+        return node;
+    }
+
+    /**
+     * Writes all the changed pages, first into the write-ahead file and then into their places, forcing each to
+     * the disk in turn.
+     *
+     * @return Integer indicates the number of bytes written into the page file.
+     * @throws IOException Throws when the pages cannot be written.
+     */
+    int commit() throws IOException {
+        TreeMap<Integer, ByteBuffer> pages = new TreeMap<>();
+        dirtyNodes.forEach((pageNumber, node) -> pages.put(pageNumber, node.encode()));
+        if (isHeaderDirty) {
+            pages.put(HEADER_PAGE, encodeHeader());
+        }
+        if (pages.isEmpty()) {
+            return 0;
+        }
+
+        try (FileOutputStream walFile = new FileOutputStream(walPath);
+                DataOutputStream wal = new DataOutputStream(new BufferedOutputStream(walFile))) {
+            for (Map.Entry<Integer, ByteBuffer> page : pages.entrySet()) {
+                wal.writeInt(page.getKey());
+                wal.write(page.getValue().array());
+            }
+            wal.writeInt(COMMIT_MARKER);
+            wal.writeInt(pages.size());
+            wal.flush();
+            walFile.getFD().sync(); //No page may reach its place before the whole commit is on the disk.
+        }
+        writePages(pages);
+        channel.force(false); //The write-ahead file is still needed until the pages are on the disk.
+        Files.delete(Paths.get(walPath));
+
+        cachedNodes.putAll(dirtyNodes);
+        dirtyNodes.clear();
+        isHeaderDirty = false;
+        return pages.size() * PAGE_SIZE;
+    }
+
+    private ByteBuffer encodeHeader() {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        page.putInt(MAGIC).putInt(PAGE_SIZE).putInt(rootPage).putInt(pageCount);
+        page.clear();
+        return page;
+    }
+
+    private void writePages(Map<Integer, ByteBuffer> pages) throws IOException {
+        for (Map.Entry<Integer, ByteBuffer> page : pages.entrySet()) {
+            ByteBuffer bytes = page.getValue();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, (long) page.getKey() * PAGE_SIZE + bytes.position());
+            }
+        }
+    }
+
+    /**
+     * Writes the pages of a complete write-ahead file into their places. A write-ahead file that was cut off has
+     * not been written into the page file at all, so it is dropped.
+     */
+    private void recover() throws IOException {
+        TreeMap<Integer, ByteBuffer> pages = new TreeMap<>();
+        try (DataInputStream wal = new DataInputStream(new BufferedInputStream(new FileInputStream(walPath)))) {
+            int pageNumber = wal.readInt();
+            while (pageNumber != COMMIT_MARKER) {
+                byte[] bytes = new byte[PAGE_SIZE];
+                wal.readFully(bytes);
+                pages.put(pageNumber, ByteBuffer.wrap(bytes));
+                pageNumber = wal.readInt();
+            }
+            if (wal.readInt() == pages.size()) {
+                writePages(pages);
+                channel.force(false);
+            }
+        } catch (FileNotFoundException e) {
+            return;
+        } catch (EOFException e) {
+            //The commit was cut off before any page was written into its place.
+        }
+        Files.delete(Paths.get(walPath));
+    }
+
+    /**
+     * Closes the page file. Changes that are not committed are lost.
+     *
+     * @throws IOException Throws when the file cannot be closed.
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A page of the tree, decoded. A leaf keeps keys and values, and an inner node keeps one more child than keys.
+     */
+    private static class Node {
+        private final int pageNumber;
+        private final boolean isLeaf;
+        private final List<Long> keys;
+        private final List<byte[]> values;
+        private final List<Integer> children;
+        private int nextLeaf;
+
+        Node(int pageNumber, boolean isLeaf) {
+            this.pageNumber = pageNumber;
+            this.isLeaf = isLeaf;
+            this.keys = new ArrayList<>();
+            this.values = new ArrayList<>();
+            this.children = new ArrayList<>();
+            this.nextLeaf = NO_PAGE;
+        }
+
+        /**
+         * Returns the number of bytes the node takes in a page.
+         */
+        int returnSize() {
+            if (!isLeaf) {
+                return NODE_HEADER_SIZE + Integer.BYTES + keys.size() * INNER_ENTRY_SIZE;
+            }
+            int size = NODE_HEADER_SIZE;
+            for (byte[] value : values) {
+                size += LEAF_ENTRY_SIZE + value.length;
+            }
+            return size;
+        }
+
+        ByteBuffer encode() {
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+            page.put((byte) (isLeaf ? 1 : 0)).putShort((short) keys.size()).putInt(nextLeaf);
+            if (isLeaf) {
+                for (int i = 0; i < keys.size(); i++) {
+                    page.putLong(keys.get(i)).putShort((short) values.get(i).length).put(values.get(i));
+                }
+            } else {
+                page.putInt(children.get(0));
+                for (int i = 0; i < keys.size(); i++) {
+                    page.putLong(keys.get(i)).putInt(children.get(i + 1));
+                }
+            }
+            page.clear();
+            return page;
+        }
+
+        static Node decode(int pageNumber, ByteBuffer page) {
+            Node node = new Node(pageNumber, page.get() == 1);
+            int count = page.getShort();
+            node.nextLeaf = page.getInt();
+            if (!node.isLeaf) {
+                node.children.add(page.getInt());
+            }
+            for (int i = 0; i < count; i++) {
+                node.keys.add(page.getLong());
+                if (node.isLeaf) {
+                    byte[] value = new byte[page.getShort()];
+                    page.get(value);
+                    node.values.add(value);
+                } else {
+                    node.children.add(page.getInt());
+                }
+            }
+            return node;
+        }
+    }
+}
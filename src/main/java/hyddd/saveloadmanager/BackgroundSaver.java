@@ -0,0 +1,176 @@
+package hyddd.saveloadmanager;
+
+import java.io.IOException;
+import java.util.List;
+
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+import hyddd.task.TaskListListener;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Saves the TaskList on a background thread, so that a slow disk never holds up hyddd's response.
+ * It is notified every time the TaskList is changed, waits a short while so that a burst of changes
+ * is saved in one write, and then saves a copy of the TaskList through Storage.
+ * Note: The number of changes is read under the read lock of the TaskList that the copy is made under,
+ * so it counts exactly the changes the copy holds.
+ */
+public class BackgroundSaver implements TaskListListener, Runnable {
+    //Constant values
+    private static final long GROUP_COMMIT_MILLIS = 100;
+    private final Storage storage;
+    private final TaskList tasks;
+    private final Object writeLock;
+    private final Thread shutdownHook;
+    private long changeCount;
+    private long savedChangeCount;
+    private IOException saveError;
+    private boolean isClosed;
+
+    /**
+     * Initializes the saver that saves tasks through storage.
+     *
+     * @param storage Storage to save the tasks with.
+     * @param tasks TaskList to be saved.
+     */
+    public BackgroundSaver(Storage storage, TaskList tasks) {
+        this.storage = storage;
+        this.tasks = tasks;
+        this.writeLock = new Object();
+        this.shutdownHook = new Thread(this::flush, "hyddd-saver-exit");
+    }
+
+    /**
+     * Starts the background thread. The TaskList is also saved when the programme exits, unless the saver is
+     * closed before.
+     */
+    public void start() {
+        Thread saverThread = new Thread(this, "hyddd-saver");
+        saverThread.setDaemon(true);
+        saverThread.start();
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Waits for changes of the TaskList and saves them until the saver is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (waitForChanges()) {
+                save();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean waitForChanges() throws InterruptedException {
+        while (!isClosed && changeCount == savedChangeCount) {
+            wait();
+        }
+
+        //Gives the following changes in a burst a chance to be saved in the same write.
+        long deadline = System.currentTimeMillis() + GROUP_COMMIT_MILLIS;
+        long now = System.currentTimeMillis();
+        while (!isClosed && now < deadline) {
+            wait(deadline - now);
+            now = System.currentTimeMillis();
+        }
+        return !isClosed;
+    }
+
+    private void save() {
+        long[] changesToSave = new long[1];
+        List<Task> tasksToSave = tasks.copyTasks(() -> changesToSave[0] = returnChangeCount());
+
+        try {
+            synchronized (writeLock) {
+                synchronized (this) {
+                    if (changesToSave[0] <= savedChangeCount) {
+                        return; //A newer copy has been saved already.
+                    }
+                }
+                try {
+                    storage.saveListDataToFile(tasksToSave);
+                    markSaved(changesToSave[0]);
+                } catch (IOException e) {
+                    markFailed(e);
+                }
+            }
+        } finally {
+            TaskList.releaseCopy(tasksToSave);
+        }
+    }
+
+    private synchronized long returnChangeCount() {
+        return changeCount;
+    }
+
+    private synchronized void markSaved(long changesSaved) {
+        savedChangeCount = changesSaved;
+        saveError = null;
+    }
+
+    private synchronized void markFailed(IOException e) {
+        saveError = e;
+    }
+
+    private synchronized void markChanged() {
+        changeCount++;
+        notifyAll();
+    }
+
+    /**
+     * Saves all the changes that are not saved yet on the calling thread, e.g. before hyddd exits.
+     */
+    public void flush() {
+        save();
+    }
+
+    /**
+     * Saves all the changes that are not saved yet, stops the background thread, and removes the shutdown hook,
+     * so that a closed saver is not kept until the programme exits.
+     */
+    public void close() {
+        flush();
+        synchronized (this) {
+            isClosed = true;
+            notifyAll();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            //The programme is exiting already, e.g. the saver is closed by another shutdown hook.
+        }
+    }
+
+    /**
+     * Throws the error of the most recent failed save, if the changes have not been saved since.
+     *
+     * @throws IOException The error of the most recent failed save.
+     */
+    public synchronized void checkError() throws IOException {
+        if (saveError != null) {
+            IOException e = saveError;
+            saveError = null;
+            throw e;
+        }
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        markChanged();
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        markChanged();
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        markChanged();
+    }
+}
@@ -0,0 +1,202 @@
+package hyddd.saveloadmanager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import hyddd.task.Deadline;
+import hyddd.task.Event;
+import hyddd.task.Task;
+import hyddd.task.ToDo;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Reads and writes the save data file in a compact binary format. Times are stored as minutes since
+ * the epoch, so they are neither formatted when saving nor parsed when loading.
+ * The file starts with a header of the magic number "HYDD", the format version and the number of tasks.
+ * Every task is then stored as:
+ * 1. a type byte, which is 'T', 'D' or 'E'.
+ * 2. a flag byte, whose lowest bit tells if the task is done and second lowest bit tells if it has a time.
+ * 3. the time in epoch minutes as a long, only if the task has a time.
+ * 4. the length of the task info in UTF-8 bytes as a variable-length integer, followed by the bytes.
+ */
+public class BinarySnapshot {
+    //Constant values
+    private static final int MAGIC = 0x48594444; //"HYDD"
+    private static final short VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HEADER_SIZE = 10;
+    private static final int MAX_FIXED_TASK_SIZE = 15; //Type, flags, time and the longest length.
+    private static final int DONE_FLAG = 1;
+    private static final int TIME_FLAG = 1 << 1;
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private final String filePath;
+
+    /**
+     * Initializes the snapshot with the filePath of the binary save data file.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     */
+    public BinarySnapshot(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Returns if the file in filePath starts with the header of a binary snapshot.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @return A boolean value of whether the file is a binary snapshot.
+     */
+    public static boolean isBinarySnapshot(String filePath) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes all the tasks in a list to the binary save data file.
+     *
+     * @param tasks Tasks to be saved.
+     * @throws IOException Throws when data cannot be written into the file.
+     */
+    public void write(List<Task> tasks) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filePath), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                writeTask(out, task);
+            }
+        }
+    }
+
+    private void writeTask(DataOutputStream out, Task task) throws IOException {
+        LocalDateTime time = task.getTime();
+        int flags = (task.isDone() ? DONE_FLAG : 0) | (time != null ? TIME_FLAG : 0);
+        byte[] taskInfo = task.getTaskInfo().getBytes(StandardCharsets.UTF_8);
+
+        out.writeByte(task.getTaskType().charAt(0));
+        out.writeByte(flags);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC) / 60);
+        }
+        writeLength(out, taskInfo.length);
+        out.write(taskInfo);
+    }
+
+    private void writeLength(DataOutputStream out, int length) throws IOException {
+        int remaining = length;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads all the tasks in the binary save data file and appends them to a list in the order of the file.
+     * The file is read through a FileChannel in large blocks.
+     *
+     * @param list List that the tasks are appended to.
+     * @throws IOException Throws when the file cannot be read or is not a binary snapshot.
+     */
+    public void load(List<Task> list) throws IOException {
+        try (FileChannel channel = new FileInputStream(filePath).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip();
+            buffer = fill(channel, buffer, HEADER_SIZE);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a hyddd binary snapshot: " + filePath);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported hyddd binary snapshot version: " + version);
+            }
+
+            int size = buffer.getInt();
+            if (list instanceof ArrayList) {
+                ((ArrayList<Task>) list).ensureCapacity(list.size() + size);
+            }
+            for (int i = 0; i < size; i++) {
+                buffer = fill(channel, buffer, MAX_FIXED_TASK_SIZE);
+                byte taskType = buffer.get();
+                int flags = buffer.get();
+                LocalDateTime time = null;
+                if ((flags & TIME_FLAG) != 0) {
+                    time = LocalDateTime.ofEpochSecond(buffer.getLong() * 60, 0, ZoneOffset.UTC);
+                }
+                int length = readLength(buffer);
+                buffer = fill(channel, buffer, length);
+                if (buffer.remaining() < length) {
+                    throw new BufferUnderflowException();
+                }
+                String task = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                list.add(createTask(taskType, (flags & DONE_FLAG) != 0, task, time));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Hyddd binary snapshot is cut off: " + filePath);
+        }
+    }
+
+    /**
+     * Returns a buffer that has at least the given number of bytes remaining to be read, reading more
+     * from the channel if needed. Fewer bytes remain only when the end of the file is reached.
+     */
+    private ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int bytesNeeded) throws IOException {
+        if (buffer.remaining() >= bytesNeeded) {
+            return buffer;
+        }
+
+        ByteBuffer filledBuffer = buffer;
+        if (buffer.capacity() < bytesNeeded) {
+            filledBuffer = ByteBuffer.allocate(Math.max(bytesNeeded, buffer.capacity() * 2));
+            filledBuffer.put(buffer);
+        } else {
+            filledBuffer.compact();
+        }
+        while (filledBuffer.position() < bytesNeeded && channel.read(filledBuffer) != -1) {
+            //Keeps reading until enough bytes are read.
+        }
+        filledBuffer.flip();
+        return filledBuffer;
+    }
+
+    private Task createTask(byte taskType, boolean isDone, String task, LocalDateTime time) throws IOException {
+        switch (taskType) {
+        case TODO: return new ToDo(isDone, task);
+        case DEADLINE: return new Deadline(isDone, task, time);
+        case EVENT: return new Event(isDone, task, time);
+        default: throw new IOException("Unknown task type in hyddd binary snapshot: " + taskType);
+        }
+    }
+
+    private int readLength(ByteBuffer buffer) {
+        int length = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get() & 0xFF;
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 35);
+        return length;
+    }
+}
@@ -0,0 +1,175 @@
+package hyddd.saveloadmanager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hyddd.metrics.Metrics;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Folds the journal into a new save data file in the background, so that the journal, and with it the work of
+ * replaying the journal when hyddd is initially invoked, stays small without holding up any command.
+ * A compaction copies the TaskList and starts a next journal at the same moment, saves the copy through Storage
+ * on the compactor thread while commands keep appending to the next journal, and then makes the next journal
+ * the journal. The new save data file and the journal are both swapped in with an atomic move, so a crash at
+ * any point leaves files that replay to the same TaskList.
+ * The duration of every compaction and the bytes it reclaims are recorded in Metrics.
+ * Note: The next journal is started under the read lock of the TaskList that the copy is made under, so no
+ * change can be missed by both the copy and the next journal.
+ */
+public class Compactor {
+    private final Storage storage;
+    private final Journal journal;
+    private final TaskList tasks;
+    private final Metrics metrics;
+    private final ExecutorService executor;
+    private Future<?> compaction;
+    private IOException compactionError;
+
+    /**
+     * Initializes the compactor that folds journal into the save data file of storage.
+     *
+     * @param storage Storage to save the tasks with.
+     * @param journal Journal of the save data file.
+     * @param tasks TaskList to be saved.
+     * @param metrics Metrics to record the compactions in.
+     */
+    public Compactor(Storage storage, Journal journal, TaskList tasks, Metrics metrics) {
+        this.storage = storage;
+        this.journal = journal;
+        this.tasks = tasks;
+        this.metrics = metrics;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hyddd-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a compaction in the background unless one is running already. If the most recent compaction
+     * saved the new save data file but could not swap in the journal, only the swap is tried again.
+     * It should be called right after the changes of a command are committed to the journal.
+     *
+     * @return Boolean value indicates if a compaction has been started.
+     * @throws IOException Throws when the next journal cannot be started.
+     */
+    public synchronized boolean start() throws IOException {
+        if (isCompacting()) {
+            return false;
+        }
+
+        long startTime = System.nanoTime();
+        long sizeBefore = storage.getFileSize() + journal.size();
+        if (journal.isCompacting()) {
+            compaction = executor.submit(() -> finish(startTime, sizeBefore));
+            return true;
+        }
+
+        List<Task> tasksToSave;
+        try {
+            tasksToSave = tasks.copyTasks(() -> {
+                try {
+                    journal.startCompaction(); //Every later change goes to the next journal.
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        compaction = executor.submit(() -> compact(tasksToSave, startTime, sizeBefore));
+        return true;
+    }
+
+    private void compact(List<Task> tasksToSave, long startTime, long sizeBefore) {
+        try {
+            storage.saveListDataToFile(tasksToSave);
+        } catch (IOException e) {
+            try {
+                journal.abortCompaction(); //The old save data file is still in place.
+            } catch (IOException abortError) {
+                e.addSuppressed(abortError);
+            }
+            markFailed(e);
+            return;
+        } finally {
+            TaskList.releaseCopy(tasksToSave);
+        }
+        finish(startTime, sizeBefore);
+    }
+
+    private void finish(long startTime, long sizeBefore) {
+        try {
+            journal.finishCompaction();
+        } catch (IOException e) {
+            markFailed(e); //The next journal is kept, and replays on top of the new save data file.
+            return;
+        }
+        long sizeAfter = storage.getFileSize() + journal.size();
+        metrics.recordCompaction(System.nanoTime() - startTime, Math.max(sizeBefore - sizeAfter, 0));
+    }
+
+    private synchronized void markFailed(IOException e) {
+        compactionError = e;
+    }
+
+    /**
+     * Returns true if a compaction is running in the background.
+     *
+     * @return Boolean value indicates if a compaction is running.
+     */
+    public synchronized boolean isCompacting() {
+        return compaction != null && !compaction.isDone();
+    }
+
+    /**
+     * Waits for the running compaction to finish, if any, e.g. before hyddd exits.
+     */
+    public void awaitCompaction() {
+        Future<?> runningCompaction;
+        synchronized (this) {
+            runningCompaction = compaction;
+        }
+        if (runningCompaction == null) {
+            return;
+        }
+
+        try {
+            runningCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the running compaction to finish, if any, and stops the compactor thread.
+     */
+    public void close() {
+        awaitCompaction();
+        executor.shutdown();
+    }
+
+    /**
+     * Throws the error of the most recent failed compaction, if it has not been reported yet.
+     *
+     * @throws IOException The error of the most recent failed compaction.
+     */
+    public synchronized void checkError() throws IOException {
+        if (compactionError != null) {
+            IOException e = compactionError;
+            compactionError = null;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package hyddd.saveloadmanager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+import hyddd.task.Task;
+import hyddd.task.TaskListListener;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A write-ahead journal that is kept next to the save data file. Instead of rewriting the whole save
+ * data file after every command, hyddd appends one compact record for every change of the TaskList,
+ * and replays the records on top of the save data file when it is initially invoked.
+ * The records are in the format of:
+ * 1. "+ index taskType | done or not | task info | time" for a task inserted at index.
+ * 2. "- index" for a task removed from index.
+ * 3. "* index done or not" for a task marked as done or undone.
+ * The first line of the journal records the length and the checksum of the save data file it is based on.
+ * A journal that is not based on the current save data file is out of date and will be discarded.
+ * While a Compactor writes a new save data file in the background, the records go into a second journal,
+ * the next journal, which holds exactly the changes made after the TaskList was copied. Once the new save
+ * data file is in place, the next journal becomes the journal. The second line of a journal made from a
+ * next journal repeats the header of the next journal, so that a next journal left behind by a crash is
+ * replayed exactly once.
+ */
+public class Journal implements TaskListListener {
+    //Constant values
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String NEXT_SUFFIX = ".next";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String HEADER = "# hyddd journal";
+    private static final String NEXT_HEADER = "# hyddd next journal";
+    private static final char INSERT = '+';
+    private static final char REMOVE = '-';
+    private static final char UPDATE = '*';
+    private static final String SPACE = " ";
+    private static final int CHECKSUM_BUFFER_SIZE = 1 << 16;
+    private final String filePath;
+    private final String journalPath;
+    private final String nextJournalPath;
+    private final StringBuilder pendingRecords;
+    private String currentPath;
+    private String nextHeader;
+    private int recordCount;
+
+    /**
+     * Initializes the journal for the save data file in filePath.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     */
+    public Journal(String filePath) {
+        this.filePath = filePath;
+        this.journalPath = filePath + JOURNAL_SUFFIX;
+        this.nextJournalPath = journalPath + NEXT_SUFFIX;
+        this.pendingRecords = new StringBuilder();
+        this.currentPath = journalPath;
+        this.recordCount = 0;
+    }
+
+    /**
+     * Returns the header of a journal based on the current save data file, which holds the length and the
+     * checksum of the file. Unlike the time the file was modified, the checksum changes whenever the tasks do,
+     * even if the file keeps its length, e.g. after a task is marked as done.
+     */
+    private String returnHeader() throws IOException {
+        CRC32C checksum = new CRC32C();
+        long length = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                length += buffer.remaining();
+                checksum.update(buffer);
+                buffer.clear();
+            }
+        } catch (NoSuchFileException e) {
+            //There is no save data file yet.
+        }
+        return HEADER + SPACE + length + SPACE + Long.toHexString(checksum.getValue());
+    }
+
+    /**
+     * Applies all the records in the journal to the list of tasks loaded from the save data file.
+     * A journal that is missing or out of date will be restarted, and a record that cannot be read,
+     * e.g. one cut off by a crash, ends the replay. The journal is then rewritten with only the records applied,
+     * so that the records of later commits are not appended to the line of a broken record.
+     * A next journal left behind by a crash during compaction is applied after the journal if the old save
+     * data file is still in place, or on its own if the new one is, and then becomes part of the journal.
+     *
+     * @param list Tasks loaded from the save data file.
+     * @throws IOException Throws when the journal cannot be restarted.
+     */
+    public synchronized void replay(List<Task> list) throws IOException {
+        List<String> journalLines = readLines(journalPath);
+        boolean isJournalValid = !journalLines.isEmpty() && journalLines.get(0).equals(returnHeader());
+        List<String> records = isJournalValid ? applyRecords(list, journalLines) : new ArrayList<>();
+        String mergedHeader = isJournalValid && journalLines.size() > 1 && journalLines.get(1).startsWith(NEXT_HEADER)
+                ? journalLines.get(1)
+                : null;
+        boolean isJournalBroken = isJournalValid
+                && (isCutOff(journalPath) || records.size() < journalLines.size() - (mergedHeader == null ? 1 : 2));
+
+        List<String> nextLines = readLines(nextJournalPath);
+        boolean isNextValid = !nextLines.isEmpty() && nextLines.get(0).startsWith(NEXT_HEADER);
+        boolean isNextMerged = isNextValid && isJournalValid && journalLines.size() > 1
+                && journalLines.get(1).equals(nextLines.get(0));
+        if (isNextValid && !isNextMerged) {
+            records.addAll(applyRecords(list, nextLines));
+            writeJournal(returnHeader(), nextLines.get(0), records);
+        } else if (!isJournalValid) {
+            reset();
+            return;
+        } else if (isJournalBroken) {
+            writeJournal(returnHeader(), mergedHeader, records);
+        }
+
+        Files.deleteIfExists(Paths.get(nextJournalPath));
+        recordCount = records.size();
+    }
+
+    /**
+     * Returns all the complete lines of a journal file, or an empty list if there is no such file.
+     * A last line that does not end with a new line was cut off while it was written, so it is left out.
+     */
+    private List<String> readLines(String path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = reader.readLine();
+            }
+        } catch (FileNotFoundException e) {
+            return lines;
+        }
+        if (lines.size() > 1 && isCutOff(path)) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns true if a journal file does not end with a new line, e.g. as a crash cut off its last record.
+     */
+    private static boolean isCutOff(String path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+            if (file.length() == 0) {
+                return false;
+            }
+            file.seek(file.length() - 1);
+            return file.read() != '\n';
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Applies the records that follow the header of a journal file, and returns the records applied.
+     */
+    private List<String> applyRecords(List<Task> list, List<String> lines) {
+        List<String> records = new ArrayList<>();
+        for (int i = 1; i < lines.size(); i++) {
+            String data = lines.get(i);
+            if (data.startsWith(NEXT_HEADER)) {
+                continue;
+            }
+            if (!applyRecord(list, data)) {
+                break;
+            }
+            records.add(data);
+        }
+        return records;
+    }
+
+    private boolean applyRecord(List<Task> list, String data) {
+        try {
+            int endOfIndex = data.indexOf(SPACE, 2);
+            int index = Integer.parseInt(endOfIndex == -1 ? data.substring(2) : data.substring(2, endOfIndex));
+            switch (data.charAt(0)) {
+            case INSERT: insertTask(list, index, Storage.createATask(data.substring(endOfIndex + 1)));
+            break;
+            case REMOVE: list.remove(index);
+            break;
+            case UPDATE: updateTask(list, index, data.charAt(endOfIndex + 1) == '1');
+            break;
+            default: return false;
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private void insertTask(List<Task> list, int index, Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown task type in journal.");
+        }
+        list.add(index, task);
+    }
+
+    private void updateTask(List<Task> list, int index, boolean isDone) {
+        Task task = list.get(index);
+        if (isDone) {
+            task.markDone();
+        } else {
+            task.resetDone();
+        }
+        list.set(index, task); //The list may not keep the task itself, e.g. a ColumnarTaskList.
+    }
+
+    /**
+     * Appends all the records of the most recent command to the journal in one write.
+     *
+     * @return Integer indicates the number of bytes written.
+     * @throws IOException Throws when the records cannot be written into the journal.
+     */
+    public synchronized int commit() throws IOException {
+        if (pendingRecords.length() == 0) {
+            return 0;
+        }
+
+        byte[] records = pendingRecords.toString().getBytes(StandardCharsets.UTF_8);
+        try (OutputStream output = new FileOutputStream(currentPath, true)) {
+            output.write(records);
+        }
+        pendingRecords.setLength(0);
+        return records.length;
+    }
+
+    /**
+     * Restarts the journal based on the current save data file. It should be called every time
+     * the whole TaskList is saved into the save data file.
+     *
+     * @throws IOException Throws when the journal cannot be written.
+     */
+    public synchronized void reset() throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(journalPath), StandardCharsets.UTF_8)) {
+            writer.write(returnHeader() + "\n");
+        }
+        Files.deleteIfExists(Paths.get(nextJournalPath));
+        currentPath = journalPath;
+        nextHeader = null;
+        pendingRecords.setLength(0);
+        recordCount = 0;
+    }
+
+    /**
+     * Starts a next journal, as a copy of the TaskList is about to be saved into a new save data file.
+     * It must be called while the TaskList cannot be changed, right when the TaskList is copied, so that
+     * the next journal holds exactly the changes made after the copy.
+     *
+     * @throws IOException Throws when the journal or the next journal cannot be written.
+     */
+    public synchronized void startCompaction() throws IOException {
+        commit();
+        nextHeader = NEXT_HEADER + SPACE + UUID.randomUUID();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(nextJournalPath), StandardCharsets.UTF_8)) {
+            writer.write(nextHeader + "\n");
+        }
+        currentPath = nextJournalPath;
+        recordCount = 0;
+    }
+
+    /**
+     * Makes the next journal the journal, as the new save data file is in place. The checksum of the new save
+     * data file is computed on the calling thread before the journal is locked, so that commands adding records
+     * in the meantime only wait for the next journal to be merged and renamed.
+     *
+     * @throws IOException Throws when the journal cannot be written.
+     */
+    public void finishCompaction() throws IOException {
+        String header = returnHeader();
+        synchronized (this) {
+            commit();
+            List<String> nextLines = readLines(nextJournalPath);
+            writeJournal(header, nextHeader, nextLines.subList(1, nextLines.size()));
+            endCompaction();
+        }
+    }
+
+    /**
+     * Appends the next journal to the journal, as the new save data file cannot be written and the old one
+     * is still in place. As in finishCompaction, the checksum is computed before the journal is locked.
+     *
+     * @throws IOException Throws when the journal cannot be written.
+     */
+    public void abortCompaction() throws IOException {
+        String header = returnHeader();
+        synchronized (this) {
+            commit();
+            List<String> records = new ArrayList<>();
+            for (String data : readLines(journalPath)) {
+                if (!data.startsWith(HEADER) && !data.startsWith(NEXT_HEADER)) {
+                    records.add(data);
+                }
+            }
+            List<String> nextLines = readLines(nextJournalPath);
+            records.addAll(nextLines.subList(1, nextLines.size()));
+            writeJournal(header, nextHeader, records);
+            endCompaction();
+            recordCount = records.size();
+        }
+    }
+
+    private void endCompaction() throws IOException {
+        Files.deleteIfExists(Paths.get(nextJournalPath));
+        currentPath = journalPath;
+        nextHeader = null;
+    }
+
+    /**
+     * Replaces the journal with one that starts with header, the header of the current save data file, holds
+     * the given records, and is marked as made from the next journal with mergedHeader, if it is not null.
+     */
+    private void writeJournal(String header, String mergedHeader, List<String> records) throws IOException {
+        String tempJournalPath = journalPath + TEMP_SUFFIX;
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempJournalPath), StandardCharsets.UTF_8)) {
+            writer.write(header + "\n");
+            if (mergedHeader != null) {
+                writer.write(mergedHeader + "\n");
+            }
+            for (String data : records) {
+                writer.write(data + "\n");
+            }
+        }
+        Storage.replaceFile(tempJournalPath, journalPath);
+    }
+
+    /**
+     * Returns true if there is a journal or a next journal on disk, e.g. left by hyddd in journal mode.
+     *
+     * @return Boolean value indicates if there is a journal.
+     */
+    public synchronized boolean exists() {
+        return new File(journalPath).exists() || new File(nextJournalPath).exists();
+    }
+
+    /**
+     * Returns the number of bytes in the journal, including the next journal if a compaction is running.
+     *
+     * @return Long value indicates the size of the journal.
+     */
+    public synchronized long size() {
+        return new File(journalPath).length() + new File(nextJournalPath).length();
+    }
+
+    /**
+     * Returns the number of records in the journal since it was restarted. While a compaction is running,
+     * only the records in the next journal are counted, as they are all that remains after the compaction.
+     *
+     * @return Integer indicates the number of records in the journal.
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns true if a next journal has been started and has not become the journal yet.
+     *
+     * @return Boolean value indicates if a compaction is running.
+     */
+    public synchronized boolean isCompacting() {
+        return nextHeader != null;
+    }
+
+    private synchronized void addRecord(char type, int index, String info) {
+        pendingRecords.append(type).append(SPACE).append(index);
+        if (info != null) {
+            pendingRecords.append(SPACE).append(info);
+        }
+        pendingRecords.append("\n");
+        recordCount++;
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        addRecord(INSERT, index, task.getSaveDataInfo());
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        addRecord(REMOVE, index, null);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        addRecord(UPDATE, index, task.isDone() ? "1" : "0");
+    }
+}
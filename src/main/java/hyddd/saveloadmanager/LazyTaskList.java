@@ -0,0 +1,277 @@
+package hyddd.saveloadmanager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import hyddd.task.PagedTaskList;
+import hyddd.task.Task;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A list of the tasks in a text save data file that reads them from the file only when they are used.
+ * The tasks in the file are numbered by the OffsetIndex, and read a page of 256 tasks at a time. The most recently
+ * used pages are kept in a cache of bounded size, and the least recently used page is dropped once it is full.
+ * A task that is added or changed is kept in memory, so the list keeps one int for every task, plus the pages
+ * in the cache and the tasks changed since the file was loaded.
+ * The file is kept open, so that the list still reads the tasks it was loaded with after the file is replaced,
+ * e.g. by a newer save. A copy shares the open file, which is closed once the list and all its copies are
+ * closed, so a copy that is not closed keeps an old save data file on disk.
+ * Reading the list is safe from many threads, while changing it is not.
+ */
+public class LazyTaskList extends AbstractList<Task> implements PagedTaskList, RandomAccess {
+    //Constant values
+    private static final int PAGE_SIZE = 256;
+    private static final byte NEW_LINE = '\n';
+    private final SharedFile file;
+    private final long[] lineStarts;
+    private final long fileSize;
+    private final Map<Integer, Task[]> pages;
+    private final int maxPageCount;
+    private final HashMap<Integer, Task> heldTasks;
+    private int[] references; //Number of the task in the file, or -1 - key of a task in heldTasks.
+    private int size;
+    private int nextKey;
+    private boolean isClosed;
+
+    /**
+     * Initializes the list with all the tasks in a text save data file.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param cacheSize Largest number of tasks read from the file to keep in memory.
+     * @throws IOException Throws when the file cannot be found or read.
+     */
+    public LazyTaskList(String filePath, int cacheSize) throws IOException {
+        this(OffsetIndex.load(filePath), FileChannel.open(Paths.get(filePath), StandardOpenOption.READ), cacheSize);
+    }
+
+    private LazyTaskList(long[] lineStarts, FileChannel channel, int cacheSize) throws IOException {
+        this.file = new SharedFile(channel);
+        this.lineStarts = lineStarts;
+        try {
+            this.fileSize = channel.size();
+        } catch (IOException e) {
+            file.release();
+            throw e;
+        }
+        this.maxPageCount = Math.max(cacheSize / PAGE_SIZE, 1);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true);
+        this.heldTasks = new HashMap<>();
+        this.size = lineStarts.length;
+        this.references = new int[Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            references[i] = i;
+        }
+    }
+
+    /**
+     * Initializes a copy of another list, which shares its file but has a cache of its own.
+     */
+    private LazyTaskList(LazyTaskList other) {
+        this.file = other.file;
+        file.retain();
+        this.lineStarts = other.lineStarts;
+        this.fileSize = other.fileSize;
+        this.maxPageCount = other.maxPageCount;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true);
+        this.heldTasks = new HashMap<>(other.heldTasks);
+        this.references = Arrays.copyOf(other.references, other.references.length);
+        this.size = other.size;
+        this.nextKey = other.nextKey;
+    }
+
+    @Override
+    public PagedTaskList copy() {
+        return new LazyTaskList(this);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!isClosed) {
+            isClosed = true;
+            file.release();
+        }
+    }
+
+    /**
+     * Returns the task at a position, reading its page from the file if the page is not in the cache.
+     *
+     * @param index Position of the task.
+     * @return Task at the position.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        int reference = references[index];
+        if (reference < 0) {
+            return heldTasks.get(-1 - reference);
+        }
+
+        Task[] page;
+        synchronized (pages) {
+            page = pages.get(reference / PAGE_SIZE);
+            if (page == null) {
+                page = readPage(reference / PAGE_SIZE);
+                pages.put(reference / PAGE_SIZE, page);
+                if (pages.size() > maxPageCount) {
+                    pages.remove(pages.keySet().iterator().next()); //Drops the least recently used page.
+                }
+            }
+        }
+        return page[reference % PAGE_SIZE];
+    }
+
+    private Task[] readPage(int pageNumber) {
+        int first = pageNumber * PAGE_SIZE;
+        int last = Math.min(first + PAGE_SIZE, lineStarts.length);
+        long start = lineStarts[first];
+        long end = last < lineStarts.length ? lineStarts[last] : fileSize;
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (buffer.hasRemaining()) {
+                if (file.channel.read(buffer, start + buffer.position()) == -1) {
+                    throw new IOException("The save data file is shorter than its index.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] bytes = buffer.array();
+        Task[] page = new Task[last - first];
+        for (int i = 0; i < page.length; i++) {
+            int lineStart = (int) (lineStarts[first + i] - start);
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != NEW_LINE) {
+                lineEnd++;
+            }
+            page[i] = SaveDataLoader.parseLine(bytes, lineStart, lineEnd);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return Integer indicates the number of tasks.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces the task at a position. The task is kept in memory from then on.
+     *
+     * @param index Position of the task.
+     * @param task Task to put in the position.
+     * @return Task that was in the position.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Task oldTask = get(index);
+        if (references[index] < 0) {
+            heldTasks.put(-1 - references[index], task);
+        } else {
+            references[index] = hold(task);
+        }
+        return oldTask;
+    }
+
+    /**
+     * Inserts a task at a position, moving the tasks after it back by one. The task is kept in memory.
+     *
+     * @param index Position to insert at.
+     * @param task Task to insert.
+     */
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        if (size == references.length) {
+            references = Arrays.copyOf(references, size * 2);
+        }
+        System.arraycopy(references, index, references, index + 1, size - index);
+        references[index] = hold(task);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes the task at a position, moving the tasks after it forward by one.
+     *
+     * @param index Position of the task.
+     * @return Task removed.
+     */
+    @Override
+    public Task remove(int index) {
+        Task task = get(index);
+        if (references[index] < 0) {
+            heldTasks.remove(-1 - references[index]);
+        }
+        System.arraycopy(references, index + 1, references, index, size - index - 1);
+        size--;
+        modCount++;
+        return task;
+    }
+
+    /**
+     * Removes all the tasks in the list.
+     */
+    @Override
+    public void clear() {
+        heldTasks.clear();
+        size = 0;
+        modCount++;
+    }
+
+    private int hold(Task task) {
+        int key = nextKey++;
+        heldTasks.put(key, task);
+        return -1 - key;
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * The save data file shared by a list and its copies, which is closed once the last of them releases it.
+     */
+    private static class SharedFile {
+        private final FileChannel channel;
+        private int userCount;
+
+        SharedFile(FileChannel channel) {
+            this.channel = channel;
+            this.userCount = 1;
+        }
+
+        synchronized void retain() {
+            userCount++;
+        }
+
+        synchronized void release() {
+            userCount--;
+            if (userCount > 0) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //The file is only read, so there is nothing left to write.
+            }
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package hyddd.saveloadmanager;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hyddd.exceptions.ExceptionType;
+import hyddd.exceptions.HydddException;
+import hyddd.metrics.Metrics;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+import hyddd.task.TaskListListener;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Storage engine that keeps the tasks as a log of records in a directory next to the save data file, e.g.
+ * "tasks.lsm" for "tasks.txt", so that a command only appends its changes, however long the list is.
+ * Every task is a record under its key in TaskKeys. The changes of a command are appended to a write-ahead log
+ * and put into a sorted table in memory, the memtable. Once the memtable holds "hyddd.lsm.memtable" bytes,
+ * 4 MB by default, it is written out in one pass as a SortedSegment and the log is started again. Once there
+ * are four segments, they are merged into one in the background, which drops the records that were replaced or
+ * deleted. When hyddd is initially invoked, the segments and the log are merged in the order of the keys to
+ * rebuild the list.
+ * The first time hyddd is invoked with this engine, the tasks in the save data file, with the journal of journal
+ * mode replayed, are written as the first segment. Every append to the log and every segment written is recorded
+ * in Metrics, and every merge is recorded as a compaction.
+ * The log is forced to the disk for a group of commits at a time, at most once every "hyddd.lsm.sync"
+ * milliseconds, 100 by default, and when the engine is closed. A commit survives a crash of hyddd as soon as it
+ * returns, but a power loss may lose the commits made since the log was last forced. A sync interval of 0 forces
+ * every commit. A segment is forced to the disk before the log is started again.
+ */
+public class LsmEngine implements StorageEngine, TaskListListener {
+    //Constant values
+    private static final String STORE_SUFFIX = ".lsm";
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String LOG_NAME = "wal.log";
+    private static final String MEMTABLE_LIMIT_PROPERTY = "hyddd.lsm.memtable";
+    private static final String SYNC_INTERVAL_PROPERTY = "hyddd.lsm.sync";
+    private static final int DEFAULT_MEMTABLE_LIMIT = 1 << 22;
+    private static final long DEFAULT_SYNC_INTERVAL = 100;
+    private static final int MERGE_THRESHOLD = 4;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private final String filePath;
+    private final File directory;
+    private final Metrics metrics;
+    private final long memtableLimit;
+    private final long syncIntervalNanos;
+    private final TaskKeys keys;
+    private final TreeMap<Long, byte[]> pendingRecords; //Value of the record to put, or SortedSegment.DELETED.
+    private final TreeMap<Long, byte[]> memtable;
+    private final List<SortedSegment> segments; //From the oldest segment, guarded by the engine.
+    private final ExecutorService merger;
+    private long memtableSize;
+    private long nextSegment;
+    private long lastSyncTime;
+    private FileChannel log;
+    private TaskList tasks;
+    private int savedModificationCount;
+    private Future<?> merge;
+    private IOException mergeError;
+
+    /**
+     * Initializes the engine for the save data file in filePath.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param metrics Metrics to record the writes and merges in.
+     */
+    public LsmEngine(String filePath, Metrics metrics) {
+        this.filePath = filePath;
+        this.directory = new File(filePath.endsWith(TEXT_SUFFIX)
+                ? filePath.substring(0, filePath.length() - TEXT_SUFFIX.length()) + STORE_SUFFIX
+                : filePath + STORE_SUFFIX);
+        this.metrics = metrics;
+        this.memtableLimit = Long.getLong(MEMTABLE_LIMIT_PROPERTY, DEFAULT_MEMTABLE_LIMIT);
+        this.syncIntervalNanos = Long.getLong(SYNC_INTERVAL_PROPERTY, DEFAULT_SYNC_INTERVAL) * 1_000_000;
+        this.keys = new TaskKeys();
+        this.pendingRecords = new TreeMap<>();
+        this.memtable = new TreeMap<>();
+        this.segments = new ArrayList<>();
+        this.merger = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hyddd-merger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nextSegment = 1;
+    }
+
+    /**
+     * Returns all the tasks in the segments and the log, in the order of their keys. If there is no segment yet,
+     * the tasks in the save data file, if any, are written as the first segment.
+     *
+     * @return List of the loaded tasks.
+     * @throws HydddException Throws when the segments or the log cannot be read.
+     */
+    @Override
+    public List<Task> load() throws HydddException {
+        List<Task> loadedTasks = TaskList.newTaskStore(false);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("The directory " + directory + " cannot be created.");
+            }
+            findSegments();
+            if (segments.isEmpty()) {
+                importSaveData(loadedTasks);
+            } else {
+                long validLength = replayLog();
+                readSegments(loadedTasks);
+                openLog(validLength);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            keys.clear();
+            log = null;
+            throw new HydddException(ExceptionType.FILE_READ_ERROR);
+        }
+        return loadedTasks;
+    }
+
+    /**
+     * Finds the segments in the directory from the oldest, and deletes the segments that were merged into another
+     * one before a crash.
+     */
+    private void findSegments() {
+        File[] files = directory.listFiles();
+        List<SortedSegment> foundSegments = new ArrayList<>();
+        for (File file : files == null ? new File[0] : files) {
+            SortedSegment segment = SortedSegment.fromFile(file);
+            if (segment != null) {
+                foundSegments.add(segment);
+            }
+        }
+
+        for (SortedSegment segment : foundSegments) {
+            if (foundSegments.stream().anyMatch(other -> other.replaces(segment))) {
+                segment.delete();
+            } else {
+                segments.add(segment);
+                nextSegment = Math.max(nextSegment, segment.getLast() + 1);
+            }
+        }
+        segments.sort(Comparator.comparingLong(SortedSegment::getLast));
+    }
+
+    private void importSaveData(List<Task> loadedTasks) throws IOException {
+        loadedTasks.addAll(TextStorageEngine.loadForImport(filePath)); //Replays the journal of journal mode.
+        TreeMap<Long, byte[]> records = new TreeMap<>();
+        for (Task task : loadedTasks) {
+            long key = keys.nextKey();
+            keys.append(key);
+            records.put(key, encode(task));
+        }
+        segments.add(SortedSegment.write(directory, nextSegment, nextSegment, records.entrySet().iterator()));
+        nextSegment++;
+        openLog(0);
+    }
+
+    /**
+     * Puts the records in the log into the memtable, and returns the length of the log up to the first record
+     * that is cut off, e.g. by a crash while it was appended.
+     */
+    private long replayLog() throws IOException {
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(new File(directory, LOG_NAME))))) {
+            Map.Entry<Long, byte[]> record = SortedSegment.readRecord(in);
+            while (record != null) {
+                putIntoMemtable(record.getKey(), record.getValue());
+                validLength += RECORD_HEADER_SIZE + record.getValue().length;
+                record = SortedSegment.readRecord(in);
+            }
+        } catch (FileNotFoundException | EOFException e) {
+            //There is no log, or its last record is cut off.
+        }
+        return validLength;
+    }
+
+    private void readSegments(List<Task> loadedTasks) throws IOException {
+        List<SortedSegment.Reader> readers = new ArrayList<>();
+        try {
+            List<Iterator<Map.Entry<Long, byte[]>>> sources = new ArrayList<>();
+            for (SortedSegment segment : segments) {
+                SortedSegment.Reader reader = segment.open();
+                readers.add(reader);
+                sources.add(reader);
+            }
+            sources.add(memtable.entrySet().iterator());
+
+            Iterator<Map.Entry<Long, byte[]>> records = SortedSegment.merge(sources);
+            while (records.hasNext()) {
+                Map.Entry<Long, byte[]> record = records.next();
+                Task task = SaveDataLoader.parseLine(record.getValue(), 0, record.getValue().length);
+                if (task != null) {
+                    loadedTasks.add(task);
+                    keys.append(record.getKey());
+                }
+            }
+        } finally {
+            for (SortedSegment.Reader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private void openLog(long validLength) throws IOException {
+        log = FileChannel.open(new File(directory, LOG_NAME).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        log.truncate(validLength);
+        log.position(validLength);
+        lastSyncTime = System.nanoTime();
+    }
+
+    private void putIntoMemtable(long key, byte[] value) {
+        byte[] oldValue = memtable.put(key, value);
+        memtableSize += RECORD_HEADER_SIZE + value.length
+                - (oldValue == null ? 0 : RECORD_HEADER_SIZE + oldValue.length);
+    }
+
+    private static byte[] encode(Task task) {
+        return task.getSaveDataInfo().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void attach(TaskList tasks) {
+        this.tasks = tasks;
+        this.savedModificationCount = tasks.getModificationCount();
+        tasks.addListener(this);
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        long[] oldKeys = keys.insert(index);
+        if (oldKeys == null) {
+            pendingRecords.put(keys.get(index), encode(task));
+            return;
+        }
+
+        //The keys are spread out, so every record is moved to its new key.
+        List<Task> allTasks = tasks.asList();
+        for (long oldKey : oldKeys) {
+            pendingRecords.put(oldKey, SortedSegment.DELETED);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            pendingRecords.put(keys.get(i), encode(allTasks.get(i)));
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        pendingRecords.put(keys.remove(index), SortedSegment.DELETED);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        pendingRecords.put(keys.get(index), encode(task));
+    }
+
+    /**
+     * Appends the records changed by the most recent command to the log and puts them into the memtable, which is
+     * written out as a segment once it is full. The log is forced to the disk if it has not been forced for the
+     * sync interval.
+     *
+     * @throws IOException Throws when the log or a segment cannot be written, the segments were not loaded,
+     *     or a merge in the background has failed.
+     */
+    @Override
+    public void commit() throws IOException {
+        checkError();
+        if (tasks.getModificationCount() == savedModificationCount) {
+            return;
+        }
+        if (log == null) {
+            throw new IOException("The segments in " + directory + " were not loaded.");
+        }
+
+        long startTime = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Map.Entry<Long, byte[]> record : pendingRecords.entrySet()) {
+            SortedSegment.writeRecord(out, record.getKey(), record.getValue());
+        }
+        long logLength = log.position();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        } catch (IOException e) {
+            log.truncate(logLength); //Leaves no record cut off in the middle of the log.
+            log.position(logLength);
+            throw e;
+        }
+        if (System.nanoTime() - lastSyncTime >= syncIntervalNanos) {
+            log.force(false); //Also forces the commits appended since the last force.
+            lastSyncTime = System.nanoTime();
+        }
+        pendingRecords.forEach(this::putIntoMemtable);
+        pendingRecords.clear();
+        metrics.recordWrite(Metrics.JOURNAL, System.nanoTime() - startTime, bytes.size());
+        savedModificationCount = tasks.getModificationCount();
+
+        if (memtableSize >= memtableLimit) {
+            writeMemtable();
+        }
+    }
+
+    /**
+     * Writes the memtable out as the newest segment and starts the log again, then starts a merge in the
+     * background if there are enough segments.
+     */
+    private void writeMemtable() throws IOException {
+        long startTime = System.nanoTime();
+        SortedSegment segment = SortedSegment.write(directory, nextSegment, nextSegment,
+                memtable.entrySet().iterator());
+        nextSegment++;
+        synchronized (this) {
+            segments.add(segment);
+        }
+        log.truncate(0);
+        log.position(0);
+        memtable.clear();
+        memtableSize = 0;
+        metrics.recordWrite(Metrics.SEGMENT, System.nanoTime() - startTime, segment.getSize());
+        startMerge();
+    }
+
+    private synchronized void startMerge() {
+        if (segments.size() < MERGE_THRESHOLD || (merge != null && !merge.isDone())) {
+            return;
+        }
+        List<SortedSegment> inputs = new ArrayList<>(segments);
+        merge = merger.submit(() -> merge(inputs));
+    }
+
+    /**
+     * Merges segments that include the oldest segment into one, which leaves out the deleted records.
+     */
+    private void merge(List<SortedSegment> inputs) {
+        long startTime = System.nanoTime();
+        long sizeBefore = inputs.stream().mapToLong(SortedSegment::getSize).sum();
+        List<SortedSegment.Reader> readers = new ArrayList<>();
+        SortedSegment output;
+        try {
+            List<Iterator<Map.Entry<Long, byte[]>>> sources = new ArrayList<>();
+            for (SortedSegment input : inputs) {
+                SortedSegment.Reader reader = input.open();
+                readers.add(reader);
+                sources.add(reader);
+            }
+            long first = inputs.get(0).getFirst();
+            long last = inputs.get(inputs.size() - 1).getLast();
+            output = SortedSegment.write(directory, first, last, SortedSegment.merge(sources));
+        } catch (IOException | UncheckedIOException e) {
+            markFailed(e instanceof UncheckedIOException ? ((UncheckedIOException) e).getCause() : (IOException) e);
+            return;
+        } finally {
+            for (SortedSegment.Reader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    //The segment is read to the end already.
+                }
+            }
+        }
+
+        synchronized (this) {
+            segments.removeAll(inputs);
+            segments.add(0, output);
+        }
+        inputs.forEach(SortedSegment::delete); //A segment left behind by a crash is deleted by the next load.
+        metrics.recordCompaction(System.nanoTime() - startTime, Math.max(sizeBefore - output.getSize(), 0));
+    }
+
+    private synchronized void markFailed(IOException e) {
+        mergeError = e;
+    }
+
+    /**
+     * Throws the error of the most recent failed merge, if it has not been reported yet.
+     */
+    private synchronized void checkError() throws IOException {
+        if (mergeError != null) {
+            IOException e = mergeError;
+            mergeError = null;
+            throw e;
+        }
+    }
+
+    @Override
+    public void save() throws IOException {
+        commit();
+    }
+
+    /**
+     * Waits for the running merge to finish, if any, as every change is appended to the log by commit.
+     */
+    @Override
+    public void flush() {
+        Future<?> runningMerge;
+        synchronized (this) {
+            runningMerge = merge;
+        }
+        if (runningMerge == null) {
+            return;
+        }
+
+        try {
+            runningMerge.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Appends the changes that are not committed yet, waits for the running merge, and forces and closes the log.
+     *
+     * @throws IOException Throws when the changes cannot be appended, or the log cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (tasks != null && log != null) {
+                commit();
+            }
+        } finally {
+            flush();
+            merger.shutdown();
+            if (log != null) {
+                try {
+                    log.force(false);
+                } finally {
+                    log.close();
+                    log = null;
+                }
+            }
+        }
+    }
+}
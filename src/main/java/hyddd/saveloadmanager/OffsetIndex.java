@@ -0,0 +1,142 @@
+package hyddd.saveloadmanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Index of the position where every task starts in a text save data file. It is kept next to the save data file
+ * in filePath + ".index", so that the save data file is only scanned once. The index file starts with the size
+ * and the last modified time of the save data file it was built for, and is built again once the save data file
+ * has changed, e.g. after a compaction.
+ * Lines that do not describe a task are left out, so the i-th position is where the i-th loaded task starts.
+ */
+class OffsetIndex {
+    //Constant values
+    private static final String INDEX_SUFFIX = ".index";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte NEW_LINE = '\n';
+
+    /**
+     * Returns the position where every task starts in the save data file, from the index file if it is up to date,
+     * or by scanning the save data file otherwise.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @return Positions where the tasks start, in ascending order.
+     * @throws IOException Throws when the save data file cannot be found or read.
+     */
+    static long[] load(String filePath) throws IOException {
+        File dataFile = new File(filePath);
+        if (!dataFile.isFile()) {
+            throw new FileNotFoundException(filePath);
+        }
+
+        long length = dataFile.length();
+        long lastModified = dataFile.lastModified();
+        String indexPath = filePath + INDEX_SUFFIX;
+        long[] lineStarts = read(indexPath, length, lastModified);
+        if (lineStarts == null) {
+            lineStarts = scan(filePath);
+            write(indexPath, lineStarts, length, lastModified);
+        }
+        return lineStarts;
+    }
+
+    /**
+     * Returns the positions kept in the index file, or null if there is no index file for the save data file.
+     */
+    private static long[] read(String indexPath, long length, long lastModified) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(indexPath), BUFFER_SIZE))) {
+            if (input.readLong() != length || input.readLong() != lastModified) {
+                return null;
+            }
+
+            long[] lineStarts = new long[input.readInt()];
+            for (int i = 0; i < lineStarts.length; i++) {
+                lineStarts[i] = input.readLong();
+            }
+            return lineStarts;
+        } catch (FileNotFoundException | EOFException e) {
+            return null;
+        }
+    }
+
+    private static void write(String indexPath, long[] lineStarts, long length, long lastModified) {
+        String tempIndexPath = indexPath + TEMP_SUFFIX;
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempIndexPath), BUFFER_SIZE))) {
+                output.writeLong(length);
+                output.writeLong(lastModified);
+                output.writeInt(lineStarts.length);
+                for (long lineStart : lineStarts) {
+                    output.writeLong(lineStart);
+                }
+            }
+            Storage.replaceFile(tempIndexPath, indexPath);
+        } catch (IOException e) {
+            //The save data file is only scanned again next time, e.g. in a read-only directory.
+        }
+    }
+
+    /**
+     * Returns the position of every line of the save data file that SaveDataLoader reads as a task.
+     */
+    private static long[] scan(String filePath) throws IOException {
+        long[] lineStarts = new long[INITIAL_CAPACITY];
+        int count = 0;
+        try (FileChannel channel = new FileInputStream(filePath).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long bufferStart = 0; //Position of the first byte in the buffer.
+            while (channel.read(buffer) != -1) {
+                byte[] bytes = buffer.array();
+                int end = buffer.position();
+                int lineStart = 0;
+                for (int i = 0; i < end; i++) {
+                    if (bytes[i] != NEW_LINE) {
+                        continue;
+                    }
+                    if (SaveDataLoader.parseLine(bytes, lineStart, i) != null) {
+                        lineStarts = count == lineStarts.length ? Arrays.copyOf(lineStarts, count * 2) : lineStarts;
+                        lineStarts[count++] = bufferStart + lineStart;
+                    }
+                    lineStart = i + 1;
+                }
+
+                bufferStart += lineStart;
+                buffer.flip();
+                buffer.position(lineStart);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    //A single line is longer than the buffer.
+                    ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    largerBuffer.put(buffer);
+                    buffer = largerBuffer;
+                }
+            }
+
+            buffer.flip();
+            if (SaveDataLoader.parseLine(buffer.array(), 0, buffer.limit()) != null) {
+                lineStarts = Arrays.copyOf(lineStarts, count + 1); //The last line may not end with a new line.
+                lineStarts[count++] = bufferStart;
+            }
+        }
+        return Arrays.copyOf(lineStarts, count);
+    }
+}
@@ -0,0 +1,221 @@
+package hyddd.saveloadmanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import hyddd.exceptions.ExceptionType;
+import hyddd.exceptions.HydddException;
+import hyddd.metrics.Metrics;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+import hyddd.task.TaskListListener;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Storage engine that keeps every task as a record of a BTreePageStore next to the save data file, e.g.
+ * "tasks.db" for "tasks.txt", so that a command writes only the pages of the tasks it changes.
+ * Every task is a record under its key in TaskKeys, so the records are read back in the order of the list.
+ * The first time hyddd is invoked with this engine, the tasks in the save data file, with the journal of journal
+ * mode replayed, are copied into the page file.
+ * The changes of a command are collected as they are made and written by commit, and every commit is recorded
+ * in Metrics with the bytes of the pages it writes.
+ */
+public class PageStoreEngine implements StorageEngine, TaskListListener {
+    //Constant values
+    private static final String STORE_SUFFIX = ".db";
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final byte[] DELETED = new byte[0];
+    private final String filePath;
+    private final String storePath;
+    private final Metrics metrics;
+    private final Map<Long, byte[]> pendingRecords; //Value of the record to put, or DELETED.
+    private final TaskKeys keys;
+    private BTreePageStore store;
+    private TaskList tasks;
+    private int savedModificationCount;
+
+    /**
+     * Initializes the engine for the save data file in filePath.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param metrics Metrics to record the commits in.
+     */
+    public PageStoreEngine(String filePath, Metrics metrics) {
+        this.filePath = filePath;
+        this.storePath = filePath.endsWith(TEXT_SUFFIX)
+                ? filePath.substring(0, filePath.length() - TEXT_SUFFIX.length()) + STORE_SUFFIX
+                : filePath + STORE_SUFFIX;
+        this.metrics = metrics;
+        this.pendingRecords = new HashMap<>();
+        this.keys = new TaskKeys();
+    }
+
+    /**
+     * Returns all the tasks in the page file, in the order of their keys. If there is no page file yet, it is
+     * created with the tasks in the save data file, if any.
+     *
+     * @return List of the loaded tasks.
+     * @throws HydddException Throws when the page file cannot be opened or read.
+     */
+    @Override
+    public List<Task> load() throws HydddException {
+        List<Task> loadedTasks = TaskList.newTaskStore(false);
+        boolean isNewStore = !new File(storePath).exists();
+        try {
+            store = BTreePageStore.open(storePath);
+            if (isNewStore) {
+                importSaveData(loadedTasks);
+            } else {
+                store.scan((value, key) -> {
+                    Task task = SaveDataLoader.parseLine(value, 0, value.length);
+                    if (task != null) {
+                        loadedTasks.add(task);
+                        keys.append(key);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            closeStore();
+            throw new HydddException(ExceptionType.FILE_READ_ERROR);
+        }
+        return loadedTasks;
+    }
+
+    private void importSaveData(List<Task> loadedTasks) throws IOException {
+        loadedTasks.addAll(TextStorageEngine.loadForImport(filePath)); //Replays the journal of journal mode.
+        for (Task task : loadedTasks) {
+            long key = keys.nextKey();
+            keys.append(key);
+            store.put(key, encode(task));
+        }
+        store.commit();
+    }
+
+    private void closeStore() {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            //The page file is not used any more.
+        }
+        store = null;
+    }
+
+    private static byte[] encode(Task task) {
+        return task.getSaveDataInfo().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void attach(TaskList tasks) {
+        this.tasks = tasks;
+        this.savedModificationCount = tasks.getModificationCount();
+        if (store == null) {
+            keys.clear(); //The tasks were not loaded, so there are no keys to follow.
+        }
+        tasks.addListener(this);
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        long[] oldKeys = keys.insert(index);
+        if (oldKeys == null) {
+            pendingRecords.put(keys.get(index), encode(task));
+            return;
+        }
+
+        //The keys are spread out, so every record is moved to its new key.
+        List<Task> allTasks = tasks.asList();
+        for (long oldKey : oldKeys) {
+            pendingRecords.put(oldKey, DELETED);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            pendingRecords.put(keys.get(i), encode(allTasks.get(i)));
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        pendingRecords.put(keys.remove(index), DELETED);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        pendingRecords.put(keys.get(index), encode(task));
+    }
+
+    /**
+     * Writes the records changed by the most recent command into their pages. A record that cannot be written,
+     * e.g. as it is longer than a page allows, is reported after the other records are written.
+     *
+     * @throws IOException Throws when the page file cannot be written, or was not loaded.
+     */
+    @Override
+    public void commit() throws IOException {
+        if (tasks.getModificationCount() == savedModificationCount) {
+            return;
+        }
+        if (store == null) {
+            throw new IOException("The page file " + storePath + " was not loaded.");
+        }
+
+        long startTime = System.nanoTime();
+        IOException recordError = null;
+        Iterator<Map.Entry<Long, byte[]>> records = pendingRecords.entrySet().iterator();
+        while (records.hasNext()) {
+            Map.Entry<Long, byte[]> record = records.next();
+            if (record.getValue() == DELETED) {
+                store.delete(record.getKey());
+            } else if (record.getValue().length > BTreePageStore.MAX_RECORD_SIZE) {
+                recordError = new IOException("The task at key " + record.getKey() + " is too long to be saved.");
+            } else {
+                store.put(record.getKey(), record.getValue());
+            }
+            records.remove(); //A failed commit carries on from the records left.
+        }
+        int bytesWritten = store.commit();
+        metrics.recordWrite(Metrics.PAGES, System.nanoTime() - startTime, bytesWritten);
+        savedModificationCount = tasks.getModificationCount();
+        if (recordError != null) {
+            throw recordError;
+        }
+    }
+
+    @Override
+    public void save() throws IOException {
+        commit();
+    }
+
+    /**
+     * Does nothing, as every change is written by commit on the calling thread.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes the changes that are not committed yet and closes the page file.
+     *
+     * @throws IOException Throws when the changes cannot be written, or the page file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (tasks != null && store != null) {
+                commit();
+            }
+        } finally {
+            if (store != null) {
+                store.close();
+                store = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package hyddd.saveloadmanager;
+
+import java.io.IOException;
+
+import hyddd.exceptions.HydddException;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Converts a save data file between the text format and the binary format.
+ * Usage: SaveDataConverter (text|binary) sourceFilePath targetFilePath
+ * The format of the source file is detected from its header.
+ */
+public class SaveDataConverter {
+    /**
+     * Converts the save data file in sourcePath into the given format and writes it to targetPath.
+     *
+     * @param sourcePath FilePath of the save data file to be converted.
+     * @param targetPath FilePath of the converted save data file.
+     * @param targetFormat Format of the converted save data file.
+     * @throws HydddException Throws when the source file cannot be loaded.
+     * @throws IOException Throws when the converted file cannot be written.
+     */
+    public static void convert(String sourcePath, String targetPath, SaveFormat targetFormat)
+            throws HydddException, IOException {
+        TaskList tasks = new TaskList(new Storage(sourcePath).load());
+        new Storage(targetPath, targetFormat).saveListDataToFile(tasks);
+    }
+
+    /**
+     * Runs the converter from the command line.
+     *
+     * @param args Target format, source filePath and target filePath.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: SaveDataConverter (text|binary) sourceFilePath targetFilePath");
+            return;
+        }
+
+        try {
+            convert(args[1], args[2], SaveFormat.valueOf(args[0].toUpperCase()));
+        } catch (HydddException e) {
+            System.out.println(e.getErrorMessage());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Cannot convert the save data: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package hyddd.saveloadmanager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import hyddd.logics.Parser;
+import hyddd.task.Deadline;
+import hyddd.task.Event;
+import hyddd.task.Task;
+import hyddd.task.ToDo;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Loads the save data file in one pass over its bytes. The file is read through a FileChannel in large
+ * blocks, and every line in the format of "taskType | done or not | task info | time" is parsed directly
+ * from the bytes, so that only the task info and the tasks themselves are allocated.
+ * It gives the same tasks as parsing every line with Parser.
+ * A large file is split into chunks that start and end at a new line, which are parsed on a ForkJoinPool
+ * at the same time and then appended to the list in the order of the file.
+ */
+public class SaveDataLoader {
+    //Constant values
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int SEARCH_SIZE = 1 << 12;
+    private static final long PARALLEL_THRESHOLD = 1 << 23;
+    private static final long MAX_CHUNK_SIZE = 1 << 26;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int TASK_INFO_START = 8;
+    private static final int DONE_POSITION = 4;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte PIPE = '|';
+    private static final byte SLASH = '/';
+    private static final byte SPACE = ' ';
+    private static final byte DONE = '1';
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private final String filePath;
+
+    /**
+     * Initializes the loader with the filePath of the save data file.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     */
+    public SaveDataLoader(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Reads all the tasks in the save data file and appends them to a list in the order of the file.
+     * Lines that do not describe a task are skipped. A file of 8 MB or more is loaded in parallel on the
+     * common ForkJoinPool if there is more than one processor.
+     *
+     * @param list List that the tasks are appended to.
+     * @throws IOException Throws when the file cannot be found or read.
+     */
+    public void load(List<Task> list) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (pool.getParallelism() > 1 && new File(filePath).length() >= PARALLEL_THRESHOLD) {
+            loadInParallel(list, pool);
+            return;
+        }
+
+        try (FileChannel channel = new FileInputStream(filePath).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer = parseCompleteLines(buffer, list);
+            }
+
+            buffer.flip();
+            addTask(list, buffer.array(), 0, buffer.limit()); //The last line may not end with a new line.
+        }
+    }
+
+    /**
+     * Reads all the tasks in the save data file in chunks that are parsed on pool at the same time,
+     * and appends them to a list in the order of the file. It gives the same tasks as load.
+     *
+     * @param list List that the tasks are appended to.
+     * @param pool ForkJoinPool to parse the chunks on.
+     * @throws IOException Throws when the file cannot be found or read.
+     */
+    public void loadInParallel(List<Task> list, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkCount = (int) Math.max((long) pool.getParallelism() * CHUNKS_PER_THREAD,
+                    size / MAX_CHUNK_SIZE + 1);
+            long[] lineStarts = splitIntoChunks(channel, chunkCount);
+            List<ChunkParser> parsers = new ArrayList<>();
+            for (int i = 0; i < chunkCount; i++) {
+                ChunkParser parser = new ChunkParser(channel, lineStarts[i], lineStarts[i + 1]);
+                parsers.add(parser);
+                pool.execute(parser);
+            }
+
+            for (ChunkParser parser : parsers) {
+                list.addAll(parser.joinChunk());
+            }
+        }
+    }
+
+    /**
+     * Returns the positions where every chunk starts, followed by the size of the file. Every chunk starts
+     * at the first line that starts at or after its share of the file, so that no line is split.
+     */
+    private static long[] splitIntoChunks(FileChannel channel, int chunkCount) throws IOException {
+        long size = channel.size();
+        long[] lineStarts = new long[chunkCount + 1];
+        for (int i = 1; i < chunkCount; i++) {
+            lineStarts[i] = Math.max(lineStarts[i - 1], findLineStart(channel, size * i / chunkCount));
+        }
+        lineStarts[chunkCount] = size;
+        return lineStarts;
+    }
+
+    private static long findLineStart(FileChannel channel, long position) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+
+        //A line starts at position if the byte before it is a new line.
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_SIZE);
+        long searchStart = position - 1;
+        while (channel.read(buffer, searchStart) > 0) {
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == NEW_LINE) {
+                    return searchStart + i + 1;
+                }
+            }
+            searchStart += buffer.limit();
+            buffer.clear();
+        }
+        return channel.size();
+    }
+
+    /**
+     * Parses every complete line in the buffer, and returns a buffer that is ready to read into,
+     * with the incomplete last line moved to its front.
+     */
+    private ByteBuffer parseCompleteLines(ByteBuffer buffer, List<Task> list) {
+        byte[] bytes = buffer.array();
+        int end = buffer.position();
+        int lineStart = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] == NEW_LINE) {
+                addTask(list, bytes, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+
+        buffer.flip();
+        buffer.position(lineStart);
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            //A single line is longer than the buffer.
+            ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            largerBuffer.put(buffer);
+            return largerBuffer;
+        }
+        return buffer;
+    }
+
+    private static void addTask(List<Task> list, byte[] bytes, int start, int end) {
+        Task task = parseLine(bytes, start, end);
+        if (task != null) {
+            list.add(task);
+        }
+    }
+
+    /**
+     * Returns the task described by the bytes of one line from start (inclusive) to end (exclusive),
+     * or null if the line does not describe a task.
+     *
+     * @param bytes Bytes containing the line.
+     * @param start Index of the first byte of the line.
+     * @param end Index after the last byte of the line.
+     * @return Task described by the line.
+     */
+    static Task parseLine(byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == CARRIAGE_RETURN) {
+            end--;
+        }
+        if (end - start < TASK_INFO_START) {
+            return null;
+        }
+
+        byte taskType = bytes[start];
+        boolean isDone = bytes[start + DONE_POSITION] == DONE;
+        int taskStart = start + TASK_INFO_START;
+        if (taskType == TODO) {
+            return new ToDo(isDone, decode(bytes, taskStart, end));
+        }
+        if (taskType != DEADLINE && taskType != EVENT) {
+            return null;
+        }
+
+        int firstPipe = indexOf(bytes, PIPE, taskStart, end);
+        if (firstPipe == -1) {
+            return null;
+        }
+        String task = decode(bytes, taskStart, firstPipe - 1);
+        LocalDateTime time = parseSaveTime(bytes, start, end);
+        return taskType == DEADLINE ? new Deadline(isDone, task, time) : new Event(isDone, task, time);
+    }
+
+    private static String decode(byte[] bytes, int start, int end) {
+        return new String(bytes, start, Math.max(end - start, 0), StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(byte[] bytes, byte target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte target, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the time after the last pipe of a line. As in Parser, there is no time if the line does not
+     * contain a slash. The time saved by hyddd is in the format of "d/m/yyyy hhmm", which is parsed directly
+     * from the bytes. Any other time falls back to Parser.
+     */
+    private static LocalDateTime parseSaveTime(byte[] bytes, int start, int end) {
+        if (indexOf(bytes, SLASH, start, end) == -1) {
+            return null;
+        }
+
+        int timeStart = lastIndexOf(bytes, PIPE, start, end) + 2;
+        int day = 0;
+        int month = 0;
+        int year = 0;
+        int clock = 0;
+        int field = 0;
+        int digits = 0;
+        for (int i = timeStart; i < end; i++) {
+            byte b = bytes[i];
+            boolean isSeparator = (field < 2 && b == SLASH) || (field == 2 && b == SPACE);
+            if (b >= '0' && b <= '9' && digits < 9) {
+                int digit = b - '0';
+                switch (field) {
+                case 0: day = day * 10 + digit;
+                break;
+                case 1: month = month * 10 + digit;
+                break;
+                case 2: year = year * 10 + digit;
+                break;
+                default: clock = clock * 10 + digit;
+                break;
+                }
+                digits++;
+            } else if (isSeparator && digits > 0) {
+                field++;
+                digits = 0;
+            } else {
+                return parseTimeWithParser(bytes, timeStart, end);
+            }
+        }
+
+        boolean isSaveFormat = field == 3 && digits == 4;
+        if (!isSaveFormat) {
+            return parseTimeWithParser(bytes, timeStart, end);
+        }
+
+        try {
+            return LocalDateTime.of(year, month, day, clock / 100, clock % 100);
+        } catch (DateTimeException e) {
+            return parseTimeWithParser(bytes, timeStart, end);
+        }
+    }
+
+    private static LocalDateTime parseTimeWithParser(byte[] bytes, int start, int end) {
+        try {
+            return new Parser("").parseTime(decode(bytes, Math.min(start, end), end));
+        } catch (DateTimeException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the lines of one chunk of the save data file into a list of its own.
+     */
+    private static class ChunkParser extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkParser(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            byte[] bytes = new byte[(int) (end - start)];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) == -1) {
+                        throw new IOException("The save data file is shorter than expected.");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] == NEW_LINE) {
+                    addTask(tasks, bytes, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            addTask(tasks, bytes, lineStart, bytes.length); //The last line may not end with a new line.
+            return tasks;
+        }
+
+        /**
+         * Waits for the chunk to be parsed and returns its tasks.
+         */
+        List<Task> joinChunk() throws IOException {
+            try {
+                return join();
+            } catch (UncheckedIOException e) {
+                //The exception may be rethrown as a copy that wraps the original one.
+                Throwable cause = e.getCause();
+                while (cause != null && !(cause instanceof IOException)) {
+                    cause = cause.getCause();
+                }
+                throw cause == null ? new IOException(e) : (IOException) cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package hyddd.saveloadmanager;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Enum of the formats that the save data file can be written in.
+ * TEXT is the human-readable format of "taskType | done or not | task info | time" on every line.
+ * BINARY is the compact format written by BinarySnapshot.
+ */
+public enum SaveFormat {
+    TEXT, BINARY;
+}
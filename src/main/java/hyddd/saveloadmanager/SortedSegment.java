@@ -0,0 +1,320 @@
+package hyddd.saveloadmanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * @@author Hang Zelin
+ *
+ * An immutable file of records sorted by their keys, written once by LsmEngine and then only read.
+ * Every record is in the format of "length key bytes", where a length of -1 marks a record that is deleted, and
+ * the file ends with a length of -2. A segment is named after the numbers of the segments it was made from,
+ * "segment-first-last.seg", so that a merged segment tells which segments it replaces, and the segment with the
+ * larger last number holds the newer records.
+ */
+class SortedSegment {
+    //Constant values
+    static final byte[] DELETED = new byte[0];
+    private static final int DELETED_LENGTH = -1;
+    private static final int END_LENGTH = -2;
+    private static final int MAGIC = 0x48595347; //"HYSG"
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SEPARATOR = "-";
+    private final File file;
+    private final long first;
+    private final long last;
+
+    private SortedSegment(File file, long first, long last) {
+        this.file = file;
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Returns the segment in a file, or null if the file is not a segment.
+     *
+     * @param file File in the directory of an LsmEngine.
+     * @return Segment in the file.
+     */
+    static SortedSegment fromFile(File file) {
+        String name = file.getName();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return null;
+        }
+        String[] numbers = name.substring(PREFIX.length(), name.length() - SUFFIX.length()).split(SEPARATOR);
+        try {
+            return numbers.length == 2
+                    ? new SortedSegment(file, Long.parseLong(numbers[0]), Long.parseLong(numbers[1]))
+                    : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes records in ascending order of their keys into a new segment, which appears in the directory as a
+     * whole or not at all. The segment is forced to the disk before it appears, as the log it replaces is started
+     * again afterwards.
+     *
+     * @param directory Directory of the segment.
+     * @param first Number of the oldest segment the records come from.
+     * @param last Number of the newest segment the records come from.
+     * @param records Records in ascending order of their keys.
+     * @return The written segment.
+     * @throws IOException Throws when the segment cannot be written.
+     */
+    static SortedSegment write(File directory, long first, long last, Iterator<Map.Entry<Long, byte[]>> records)
+            throws IOException {
+        File file = new File(directory, PREFIX + first + SEPARATOR + last + SUFFIX);
+        File tempFile = new File(directory, file.getName() + TEMP_SUFFIX);
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            while (records.hasNext()) {
+                Map.Entry<Long, byte[]> record = records.next();
+                writeRecord(out, record.getKey(), record.getValue());
+            }
+            out.writeInt(END_LENGTH);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Storage.replaceFile(tempFile.getPath(), file.getPath());
+        return new SortedSegment(file, first, last);
+    }
+
+    /**
+     * Writes one record, which is DELETED if the record is deleted.
+     *
+     * @param out Output to write to.
+     * @param key Key of the record.
+     * @param value Bytes of the record, or DELETED.
+     * @throws IOException Throws when the record cannot be written.
+     */
+    static void writeRecord(DataOutput out, long key, byte[] value) throws IOException {
+        if (value == DELETED) {
+            out.writeInt(DELETED_LENGTH);
+            out.writeLong(key);
+            return;
+        }
+        out.writeInt(value.length);
+        out.writeLong(key);
+        out.write(value);
+    }
+
+    /**
+     * Reads one record, or returns null at the end of a segment.
+     *
+     * @param in Input to read from.
+     * @return The record, whose value is DELETED if the record is deleted.
+     * @throws IOException Throws when the record cannot be read, or is cut off.
+     */
+    static Map.Entry<Long, byte[]> readRecord(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == END_LENGTH) {
+            return null;
+        }
+        if (length < DELETED_LENGTH) {
+            throw new IOException("A record has an invalid length of " + length + ".");
+        }
+        long key = in.readLong();
+        byte[] value = DELETED;
+        if (length != DELETED_LENGTH) {
+            value = new byte[length];
+            in.readFully(value);
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(key, value);
+    }
+
+    /**
+     * Returns records with the newest value of every key in the sources, in ascending order of their keys.
+     * A source that comes later in the list is newer. Deleted records are left out, as the sources should include
+     * the oldest segment. The sources should be read only through the result.
+     *
+     * @param sources Records of every source in ascending order of their keys, from the oldest source.
+     * @return Merged records.
+     */
+    static Iterator<Map.Entry<Long, byte[]>> merge(List<Iterator<Map.Entry<Long, byte[]>>> sources) {
+        return new MergingIterator(sources);
+    }
+
+    /**
+     * Opens the segment to read its records in ascending order of their keys.
+     *
+     * @return Reader of the records, which throws an UncheckedIOException when the segment cannot be read.
+     * @throws IOException Throws when the segment cannot be opened.
+     */
+    Reader open() throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * Returns true if this segment was made from, and so replaces, another segment.
+     *
+     * @param other Another segment.
+     * @return Boolean value indicates if this segment replaces other.
+     */
+    boolean replaces(SortedSegment other) {
+        return other != this && first <= other.first && other.last <= last
+                && (first != other.first || last != other.last);
+    }
+
+    boolean delete() {
+        return file.delete();
+    }
+
+    long getFirst() {
+        return first;
+    }
+
+    long getLast() {
+        return last;
+    }
+
+    long getSize() {
+        return file.length();
+    }
+
+    /**
+     * Reads the records of a segment one at a time.
+     */
+    static class Reader implements Iterator<Map.Entry<Long, byte[]>>, Closeable {
+        private final DataInputStream in;
+        private Map.Entry<Long, byte[]> next;
+
+        Reader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(file.getName() + " is not a hyddd segment.");
+                }
+                next = readRecord(in);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Long, byte[]> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Long, byte[]> record = next;
+            try {
+                next = readRecord(in);
+            } catch (EOFException e) {
+                throw new UncheckedIOException(new IOException("A segment is cut off.", e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Merges sources of sorted records, keeping only the record from the newest source for every key, unless it
+     * is deleted.
+     */
+    private static class MergingIterator implements Iterator<Map.Entry<Long, byte[]>> {
+        private final List<Iterator<Map.Entry<Long, byte[]>>> sources;
+        private final PriorityQueue<Head> heads;
+        private Map.Entry<Long, byte[]> next;
+
+        MergingIterator(List<Iterator<Map.Entry<Long, byte[]>>> sources) {
+            this.sources = new ArrayList<>(sources);
+            this.heads = new PriorityQueue<>();
+            for (int i = 0; i < sources.size(); i++) {
+                advance(i);
+            }
+            findNext();
+        }
+
+        private void advance(int source) {
+            Iterator<Map.Entry<Long, byte[]>> records = sources.get(source);
+            if (records.hasNext()) {
+                heads.add(new Head(records.next(), source));
+            }
+        }
+
+        private void findNext() {
+            next = null;
+            while (next == null && !heads.isEmpty()) {
+                Head head = heads.poll();
+                advance(head.source);
+                //The newest record of a key comes first, so the older records of the key are skipped.
+                while (!heads.isEmpty() && heads.peek().record.getKey().equals(head.record.getKey())) {
+                    advance(heads.poll().source);
+                }
+                if (head.record.getValue() != DELETED) {
+                    next = head.record;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Long, byte[]> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Long, byte[]> record = next;
+            findNext();
+            return record;
+        }
+    }
+
+    /**
+     * The next record of a source, ordered by its key and then from the newest source.
+     */
+    private static class Head implements Comparable<Head> {
+        private final Map.Entry<Long, byte[]> record;
+        private final int source;
+
+        Head(Map.Entry<Long, byte[]> record, int source) {
+            this.record = record;
+            this.source = source;
+        }
+
+        @Override
+        public int compareTo(Head other) {
+            int order = Long.compare(record.getKey(), other.record.getKey());
+            return order != 0 ? order : Integer.compare(other.source, source);
+        }
+    }
+}
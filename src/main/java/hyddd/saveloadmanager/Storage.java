@@ -1,16 +1,22 @@
 package hyddd.saveloadmanager;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
 
 import hyddd.exceptions.ExceptionType;
 import hyddd.exceptions.HydddException;
 import hyddd.logics.Parser;
+import hyddd.metrics.Metrics;
 import hyddd.task.Task;
 import hyddd.task.TaskList;
 
@@ -21,16 +27,43 @@ import hyddd.task.TaskList;
  * In other words, programme allows hyddd to save and read data from a file.
  */
 public class Storage {
+    private static final String TEMP_SUFFIX = ".tmp";
     private final String filePath;
+    private final SaveFormat saveFormat;
+    private final Metrics metrics;
     private final ArrayList<Task> list;
 
     /**
-     * Initializes filePath and the TaskList for Storage to read data.
+     * Initializes filePath and the TaskList for Storage to read data. Data is saved in the text format.
      *
      * @param filePath FilePath of the hyddd data storage.
      */
     public Storage(String filePath) {
+        this(filePath, SaveFormat.TEXT);
+    }
+
+    /**
+     * Initializes filePath, the format to save data in and the TaskList for Storage to read data.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param saveFormat Format that data is saved in.
+     */
+    public Storage(String filePath, SaveFormat saveFormat) {
+        this(filePath, saveFormat, new Metrics());
+    }
+
+    /**
+     * Initializes filePath, the format to save data in and the TaskList for Storage to read data.
+     * Every save is recorded in metrics, with its latency and the size of the file written.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param saveFormat Format that data is saved in.
+     * @param metrics Metrics to record the saves in.
+     */
+    public Storage(String filePath, SaveFormat saveFormat, Metrics metrics) {
         this.filePath = filePath;
+        this.saveFormat = saveFormat;
+        this.metrics = metrics;
         this.list = new ArrayList<>();
     }
 
@@ -43,7 +76,7 @@ public class Storage {
     public ArrayList<Task> load() throws HydddException {
         try {
             readDataFromFile();
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             throw new HydddException(ExceptionType.FILE_READ_ERROR);
         }
 
@@ -51,41 +84,130 @@ public class Storage {
     }
 
     /**
-     * Allows users to read all the info of tasks stored in local files, and write them into TaskList.
+     * Loads all the tasks from the local file into a given list, e.g. a ColumnarTaskList.
      *
-     * @throws FileNotFoundException Throws when the file cannot be found.
+     * @param tasks List that the tasks are appended to.
+     * @throws HydddException Throws when the file cannot be loaded.
      */
-    public void readDataFromFile() throws FileNotFoundException {
-        File f = new File(filePath); // create a File for the given file path
-        Scanner s = new Scanner(f);
-        int index = 1;
-        while (s.hasNext()) {
-            String data = s.nextLine();
-            char done;
-            createATask(data);
-            done = returnIsDone(data);
-            if (done == '1') {
-                this.list.get(index - 1).markDone();
+    public void load(List<Task> tasks) throws HydddException {
+        try {
+            readDataFromFile(tasks);
+        } catch (IOException e) {
+            throw new HydddException(ExceptionType.FILE_READ_ERROR);
+        }
+    }
+
+    /**
+     * Returns a list of the tasks in the local file that reads them from the file only when they are used,
+     * keeping at most cacheSize of them in memory. The file is scanned once to find where every task starts,
+     * and the positions are kept next to it for the next time. A file in the binary format is loaded as a whole.
+     *
+     * @param cacheSize Largest number of tasks read from the file to keep in memory.
+     * @return List of the tasks loaded from the local file.
+     * @throws HydddException Throws when the file cannot be loaded.
+     */
+    public List<Task> loadLazily(int cacheSize) throws HydddException {
+        try {
+            if (BinarySnapshot.isBinarySnapshot(filePath)) {
+                List<Task> tasks = TaskList.newTaskStore(false);
+                readDataFromFile(tasks);
+                return tasks;
             }
-            index++;
+            return new LazyTaskList(filePath, cacheSize);
+        } catch (IOException e) {
+            throw new HydddException(ExceptionType.FILE_READ_ERROR);
         }
     }
 
     /**
-     * Allows users to save data from a TaskList to a specific file.
+     * Allows users to read all the info of tasks stored in local files, and write them into TaskList.
+     * The file can be in either format, which is told by its header. A text file is parsed in one pass
+     * by SaveDataLoader, or in parallel chunks if it is large.
+     *
+     * @throws IOException Throws when the file cannot be found or read.
+     */
+    public void readDataFromFile() throws IOException {
+        readDataFromFile(this.list);
+    }
+
+    private void readDataFromFile(List<Task> tasks) throws IOException {
+        if (BinarySnapshot.isBinarySnapshot(filePath)) {
+            new BinarySnapshot(filePath).load(tasks);
+        } else {
+            new SaveDataLoader(filePath).load(tasks);
+        }
+    }
+
+    /**
+     * Allows users to save data from a TaskList to a specific file in the format of this Storage.
      *
      * @param tasks TaskList tobe saved into the local file in the filePath.
      * @throws IOException Throws when data cannot be written into local file.
      */
     public void saveListDataToFile(TaskList tasks) throws IOException {
-        FileWriter fw = new FileWriter(filePath);
-        for (int i = 0; i < tasks.size(); i++) {
-            fw.write(tasks.get(i).getSaveDataInfo() + "\n");
+        List<Task> tasksToSave = tasks.copyTasks();
+        try {
+            saveListDataToFile(tasksToSave);
+        } finally {
+            TaskList.releaseCopy(tasksToSave);
+        }
+    }
+
+    /**
+     * Allows users to save a list of tasks to a specific file in the format of this Storage.
+     * The data is written into a temporary file first, which then replaces the old file, so that
+     * a crash while saving never leaves a half-written file behind.
+     *
+     * @param tasks Tasks tobe saved into the local file in the filePath.
+     * @throws IOException Throws when data cannot be written into local file.
+     */
+    public void saveListDataToFile(List<Task> tasks) throws IOException {
+        long startTime = System.nanoTime();
+        String tempFilePath = filePath + TEMP_SUFFIX;
+        if (saveFormat == SaveFormat.BINARY) {
+            new BinarySnapshot(tempFilePath).write(tasks);
+        } else {
+            FileWriter fw = new FileWriter(tempFilePath, StandardCharsets.UTF_8);
+            for (Task task : tasks) {
+                fw.write(task.getSaveDataInfo() + "\n");
+            }
+            fw.close();
         }
-        fw.close();
+        long bytesWritten = Files.size(Paths.get(tempFilePath));
+        replaceFile(tempFilePath, filePath);
+        metrics.recordWrite(Metrics.SAVE, System.nanoTime() - startTime, bytesWritten);
     }
 
-    private void createATask(String data) {
+    /**
+     * Returns the number of bytes in the save data file, or 0 if there is no save data file yet.
+     *
+     * @return Long value indicates the size of the save data file.
+     */
+    public long getFileSize() {
+        return new File(filePath).length();
+    }
+
+    /**
+     * Replaces the file in filePath with the file in tempFilePath, atomically if the file system allows.
+     */
+    static void replaceFile(String tempFilePath, String filePath) throws IOException {
+        Path source = Paths.get(tempFilePath);
+        Path target = Paths.get(filePath);
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns a task converted from a line of save data, or null if the line does not describe a task.
+     * It is shared by the save data file and the journal, which store tasks in the same format.
+     *
+     * @param data A line of save data to be parsed.
+     * @return Task described by the line of save data.
+     */
+    static Task createATask(String data) {
         Parser p = new Parser(data);
         char taskType = data.charAt(0);
         String task;
@@ -103,9 +225,13 @@ public class Storage {
 
             if (isCorrectType && isTaskType) {
                 Task newTask = t.assignTaskType(t, task, parsedTime);
-                this.list.add(newTask);
+                if (returnIsDone(data) == '1') {
+                    newTask.markDone();
+                }
+                return newTask;
             }
         }
+        return null;
     }
 
     /**
@@ -115,7 +241,7 @@ public class Storage {
      * @param data A line of command in the save file to be parsed.
      * @return a Char indicates if the task is done or not.
      */
-    private char returnIsDone(String data) {
+    private static char returnIsDone(String data) {
         char done = data.charAt(4);
         return done;
     }
@@ -0,0 +1,68 @@
+package hyddd.saveloadmanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import hyddd.exceptions.HydddException;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Keeps the tasks of hyddd on disk. An engine loads the tasks once when hyddd is initially invoked, and then
+ * follows the changes of the TaskList and saves them after every command, in whichever way suits its files.
+ * An engine keeps its files open until it is closed when hyddd exits.
+ * hyddd has three engines, chosen by the system property "hyddd.engine": the TextStorageEngine, which keeps
+ * a save data file in the text or binary format, the PageStoreEngine, which keeps every task as a record in
+ * a B-tree of pages and updates it in place, and the LsmEngine, which appends every change to a log and merges
+ * the sorted segments written from it in the background.
+ */
+public interface StorageEngine extends Closeable {
+    /**
+     * Returns a list of all the tasks on disk, to be used as the store of the TaskList.
+     *
+     * @return List of the loaded tasks.
+     * @throws HydddException Throws when the tasks cannot be loaded.
+     */
+    List<Task> load() throws HydddException;
+
+    /**
+     * Starts following the changes of the TaskList made from the loaded tasks, or from an empty list if they
+     * cannot be loaded.
+     *
+     * @param tasks TaskList to be saved.
+     */
+    void attach(TaskList tasks);
+
+    /**
+     * Saves the changes of the most recent command, or starts saving them in the background.
+     * Nothing is written if the TaskList has not been changed since it was last saved.
+     *
+     * @throws IOException Throws when the changes cannot be saved, or a save in the background has failed.
+     */
+    void commit() throws IOException;
+
+    /**
+     * Saves all the changes that are not saved yet on the calling thread.
+     *
+     * @throws IOException Throws when the changes cannot be saved.
+     */
+    void save() throws IOException;
+
+    /**
+     * Saves all the changes that are not saved yet, and waits for any work in the background, e.g. before
+     * hyddd exits.
+     */
+    void flush();
+
+    /**
+     * Saves all the changes that are not saved yet, waits for any work in the background, and releases the files
+     * and threads of the engine. The engine cannot be used after it is closed.
+     *
+     * @throws IOException Throws when the changes cannot be saved, or the files cannot be closed.
+     */
+    @Override
+    void close() throws IOException;
+}
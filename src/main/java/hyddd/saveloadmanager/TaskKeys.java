@@ -0,0 +1,96 @@
+package hyddd.saveloadmanager;
+
+import java.util.Arrays;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Keys of the tasks in a TaskList, which stay the same while a task is in the list and are in the order of the
+ * list, so that records sorted by their keys are in the order of the list. A task inserted between two others
+ * gets a key between theirs, and the keys of all the tasks are spread out again only once there is no key left
+ * between them.
+ */
+class TaskKeys {
+    //Constant values
+    static final long KEY_GAP = 1L << 20;
+    private long[] keys;
+    private int size;
+
+    TaskKeys() {
+        this.keys = new long[16];
+    }
+
+    /**
+     * Adds a key loaded from disk after all the other keys.
+     *
+     * @param key Key of the task, larger than all the other keys.
+     */
+    void append(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+    }
+
+    /**
+     * Returns the key that the next task added after all the other keys should get.
+     *
+     * @return Key of the next task.
+     */
+    long nextKey() {
+        return size == 0 ? KEY_GAP : keys[size - 1] + KEY_GAP;
+    }
+
+    /**
+     * Inserts a key for a task inserted at index. If there is no key left between its neighbours, every task
+     * is given a new key KEY_GAP apart from its neighbours, and the old keys are returned so that their records
+     * can be moved.
+     *
+     * @param index Index of the inserted task.
+     * @return Old keys of all the tasks after the insert if the keys are spread out, or null.
+     */
+    long[] insert(int index) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        long previous = index == 0 ? 0 : keys[index - 1];
+        long next = index == size ? previous + 2 * KEY_GAP : keys[index];
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        size++;
+        if (next - previous >= 2) {
+            keys[index] = previous + (next - previous) / 2;
+            return null;
+        }
+
+        long[] oldKeys = Arrays.copyOf(keys, size);
+        for (int i = 0; i < size; i++) {
+            keys[i] = (i + 1) * KEY_GAP;
+        }
+        return oldKeys;
+    }
+
+    /**
+     * Removes the key of the task at index.
+     *
+     * @param index Index of the removed task.
+     * @return Key of the removed task.
+     */
+    long remove(int index) {
+        long key = keys[index];
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        size--;
+        return key;
+    }
+
+    long get(int index) {
+        return keys[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,209 @@
+package hyddd.saveloadmanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import hyddd.exceptions.HydddException;
+import hyddd.metrics.Metrics;
+import hyddd.task.PagedTaskList;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Storage engine that keeps all the tasks in one save data file, in the text or the binary format.
+ * In journal mode, every change is appended to a journal instead of rewriting the whole save data file,
+ * and a Compactor folds the journal into the save data file in the background once it holds the number of
+ * records given by the system property "hyddd.compaction.limit", 1000 by default. This also bounds the
+ * records replayed when hyddd is initially invoked.
+ * Otherwise, the whole save data file is rewritten by a BackgroundSaver in the background.
+ * The save data file is loaded in whichever format it is in, and saved in the given format.
+ * Tasks are loaded straight into the store of the TaskList. In columnar mode, the store keeps tasks in columns,
+ * which holds large lists in less memory. In lazy mode, a text save data file is read a page at a time when
+ * the tasks are used instead, keeping at most "hyddd.lazy.cache" of them in memory, 65536 by default.
+ */
+public class TextStorageEngine implements StorageEngine {
+    //Constant values
+    private static final String LAZY_CACHE_PROPERTY = "hyddd.lazy.cache";
+    private static final String COMPACTION_LIMIT_PROPERTY = "hyddd.compaction.limit";
+    private static final int DEFAULT_COMPACTION_LIMIT = 1000;
+    private static final int DEFAULT_LAZY_CACHE = 1 << 16;
+    private final Storage storage;
+    private final Metrics metrics;
+    private final boolean isColumnarMode;
+    private final boolean isLazyMode;
+    private final int compactionLimit;
+    private Journal journal;
+    private Compactor compactor;
+    private BackgroundSaver saver;
+    private PagedTaskList pagedTasks; //Loaded in lazy mode, and closed with the engine.
+    private TaskList tasks;
+    private int savedModificationCount;
+
+    /**
+     * Initializes the engine for the save data file in filePath.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @param isJournalMode Indicates if changes are saved in journal mode.
+     * @param saveFormat Format that data is saved in.
+     * @param isColumnarMode Indicates if tasks are kept in columns.
+     * @param isLazyMode Indicates if tasks are read only when they are used.
+     * @param metrics Metrics to record the saves in.
+     */
+    public TextStorageEngine(String filePath, boolean isJournalMode, SaveFormat saveFormat, boolean isColumnarMode,
+            boolean isLazyMode, Metrics metrics) {
+        this.storage = new Storage(filePath, saveFormat, metrics);
+        this.metrics = metrics;
+        this.isColumnarMode = isColumnarMode;
+        this.isLazyMode = isLazyMode;
+        this.compactionLimit = Integer.getInteger(COMPACTION_LIMIT_PROPERTY, DEFAULT_COMPACTION_LIMIT);
+        this.journal = isJournalMode ? new Journal(filePath) : null;
+    }
+
+    /**
+     * Returns all the tasks in the save data file with the journal replayed on top of them. If the save data file
+     * cannot be loaded, e.g. as it has not been saved yet, the journal is replayed on top of no tasks.
+     *
+     * @return List of the loaded tasks.
+     */
+    @Override
+    public List<Task> load() {
+        List<Task> loadedTasks = TaskList.newTaskStore(isColumnarMode);
+        try {
+            if (isLazyMode) {
+                loadedTasks = storage.loadLazily(Integer.getInteger(LAZY_CACHE_PROPERTY, DEFAULT_LAZY_CACHE));
+                pagedTasks = loadedTasks instanceof PagedTaskList ? (PagedTaskList) loadedTasks : null;
+            } else {
+                storage.load(loadedTasks);
+            }
+        } catch (HydddException e) {
+            loadedTasks.clear();
+            e.getErrorMessage();
+        }
+
+        if (journal != null) {
+            try {
+                journal.replay(loadedTasks);
+            } catch (IOException e) {
+                journal = null; //Falls back to rewriting the whole save data file.
+            }
+        }
+        return loadedTasks;
+    }
+
+    /**
+     * Returns all the tasks in the save data file with its journal replayed, e.g. for another engine to import
+     * them. A journal is folded into the save data file, so that it is not left behind out of date.
+     *
+     * @param filePath FilePath of the hyddd data storage.
+     * @return List of the loaded tasks.
+     * @throws IOException Throws when the save data file cannot be read, or the journal cannot be folded into it.
+     */
+    static List<Task> loadForImport(String filePath) throws IOException {
+        List<Task> loadedTasks = TaskList.newTaskStore(false);
+        Storage storage = new Storage(filePath);
+        if (new File(filePath).exists()) {
+            try {
+                storage.load(loadedTasks);
+            } catch (HydddException e) {
+                throw new IOException("The save data file " + filePath + " cannot be read.", e);
+            }
+        }
+
+        Journal journal = new Journal(filePath);
+        if (journal.exists()) {
+            journal.replay(loadedTasks);
+            storage.saveListDataToFile(loadedTasks);
+            journal.reset();
+        }
+        return loadedTasks;
+    }
+
+    @Override
+    public void attach(TaskList tasks) {
+        this.tasks = tasks;
+        this.savedModificationCount = tasks.getModificationCount();
+        if (journal != null) {
+            tasks.addListener(journal);
+            compactor = new Compactor(storage, journal, tasks, metrics);
+        } else {
+            saver = new BackgroundSaver(storage, tasks);
+            tasks.addListener(saver);
+            saver.start();
+        }
+    }
+
+    /**
+     * Saves the changes of the most recent command. In journal mode, only the changes are appended to the journal,
+     * and a compaction is started in the background once the journal grows too long. Otherwise, the changes are
+     * saved by the BackgroundSaver, and only the error of its most recent failed save is reported here.
+     *
+     * @throws IOException Throws when the changes cannot be saved, or a save in the background has failed.
+     */
+    @Override
+    public void commit() throws IOException {
+        if (saver != null) {
+            saver.checkError();
+        } else if (tasks.getModificationCount() != savedModificationCount) {
+            long startTime = System.nanoTime();
+            int bytesWritten = journal.commit();
+            metrics.recordWrite(Metrics.JOURNAL, System.nanoTime() - startTime, bytesWritten);
+            savedModificationCount = tasks.getModificationCount();
+            compactor.checkError();
+            if (journal.getRecordCount() >= compactionLimit) {
+                compactor.start();
+            }
+        }
+    }
+
+    /**
+     * Saves all the changes that are not saved yet. A running compaction is left to finish in the background.
+     *
+     * @throws IOException Throws when the changes cannot be saved.
+     */
+    @Override
+    public void save() throws IOException {
+        if (saver != null) {
+            saver.flush();
+        }
+        commit();
+    }
+
+    /**
+     * Saves all the changes that are not saved yet by the BackgroundSaver, and waits for a running compaction.
+     */
+    @Override
+    public void flush() {
+        if (saver != null) {
+            saver.flush();
+        }
+        if (compactor != null) {
+            compactor.awaitCompaction();
+        }
+    }
+
+    /**
+     * Saves all the changes that are not saved yet, stops the BackgroundSaver or the Compactor, and closes the
+     * save data file that the tasks are read from in lazy mode.
+     *
+     * @throws IOException Throws when the changes cannot be saved.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            save();
+        } finally {
+            if (saver != null) {
+                saver.close();
+            }
+            if (compactor != null) {
+                compactor.close();
+            }
+            if (pagedTasks != null) {
+                pagedTasks.close();
+            }
+        }
+    }
+}
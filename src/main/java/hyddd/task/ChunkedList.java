@@ -0,0 +1,240 @@
+package hyddd.task;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A list that keeps its elements in a sequence of small chunks, together with a Fenwick tree over the sizes
+ * of the chunks. A position is found by walking down the tree, in O(log n) time, and inserting or removing
+ * an element only moves the elements in its own chunk, instead of the whole tail of the list.
+ * The chunks can be any kind of list, e.g. an ArrayList of tasks or a ColumnarTaskList, made by a ChunkFactory
+ * that may share state between the chunks of one list, e.g. a StringPool.
+ *
+ * @param <E> Type of the elements.
+ * @param <C> Type of the chunks.
+ */
+class ChunkedList<E, C extends List<E>> extends AbstractList<E> implements RandomAccess {
+    //Constant values
+    private static final int MAX_CHUNK_SIZE = 2048;
+    private final ChunkFactory<C> chunkFactory;
+    private final ArrayList<C> chunks;
+    private int[] sizeTree; //Fenwick tree over the sizes of the chunks, indexed from 1.
+    private int size;
+
+    /**
+     * Initializes an empty list of chunks that share nothing.
+     *
+     * @param chunkFactory Creates an empty chunk.
+     * @param chunkCopier Copies a chunk.
+     */
+    ChunkedList(Supplier<C> chunkFactory, UnaryOperator<C> chunkCopier) {
+        this(new ChunkFactory<C>() {
+            @Override
+            public C create() {
+                return chunkFactory.get();
+            }
+
+            @Override
+            public C copy(C chunk) {
+                return chunkCopier.apply(chunk);
+            }
+
+            @Override
+            public ChunkFactory<C> forCopy() {
+                return this;
+            }
+        });
+    }
+
+    /**
+     * Initializes an empty list.
+     *
+     * @param chunkFactory Creates and copies the chunks of this list.
+     */
+    ChunkedList(ChunkFactory<C> chunkFactory) {
+        this.chunkFactory = chunkFactory;
+        this.chunks = new ArrayList<>();
+        this.sizeTree = new int[1];
+    }
+
+    /**
+     * Returns a copy of this list, made chunk by chunk.
+     *
+     * @return Copy of this list.
+     */
+    ChunkedList<E, C> copy() {
+        ChunkFactory<C> copyFactory = chunkFactory.forCopy();
+        ChunkedList<E, C> copy = new ChunkedList<>(copyFactory);
+        chunks.forEach(chunk -> copy.chunks.add(copyFactory.copy(chunk)));
+        copy.sizeTree = sizeTree.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size);
+        long position = locate(index);
+        return chunks.get((int) (position >>> 32)).get((int) position);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        checkIndex(index, size);
+        long position = locate(index);
+        return chunks.get((int) (position >>> 32)).set((int) position, element);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkIndex(index, size + 1);
+        int chunkIndex;
+        int offset;
+        if (index == size) {
+            //Appends to the last chunk, so that a list that is built in order has full chunks.
+            if (chunks.isEmpty() || chunks.get(chunks.size() - 1).size() >= MAX_CHUNK_SIZE) {
+                chunks.add(chunkFactory.create());
+                rebuildSizeTree();
+            }
+            chunkIndex = chunks.size() - 1;
+            offset = chunks.get(chunkIndex).size();
+        } else {
+            long position = locate(index);
+            chunkIndex = (int) (position >>> 32);
+            offset = (int) position;
+        }
+
+        C chunk = chunks.get(chunkIndex);
+        chunk.add(offset, element);
+        size++;
+        modCount++;
+        if (chunk.size() > MAX_CHUNK_SIZE) {
+            splitChunk(chunkIndex);
+        } else {
+            updateSizeTree(chunkIndex, 1);
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index, size);
+        long position = locate(index);
+        int chunkIndex = (int) (position >>> 32);
+        C chunk = chunks.get(chunkIndex);
+        E element = chunk.remove((int) position);
+        size--;
+        modCount++;
+        if (chunk.isEmpty()) {
+            chunks.remove(chunkIndex);
+            rebuildSizeTree();
+        } else {
+            updateSizeTree(chunkIndex, -1);
+        }
+        return element;
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        rebuildSizeTree();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the chunk that holds a position in its upper 32 bits, and the offset of the position
+     * in the chunk in its lower 32 bits, by walking down the Fenwick tree.
+     */
+    private long locate(int index) {
+        int chunkCount = chunks.size();
+        int chunkIndex = 0;
+        int offset = index;
+        for (int step = Integer.highestOneBit(chunkCount); step > 0; step >>= 1) {
+            int next = chunkIndex + step;
+            if (next <= chunkCount && sizeTree[next] <= offset) {
+                chunkIndex = next;
+                offset -= sizeTree[next];
+            }
+        }
+        return ((long) chunkIndex << 32) | offset;
+    }
+
+    private void updateSizeTree(int chunkIndex, int change) {
+        for (int i = chunkIndex + 1; i < sizeTree.length; i += i & -i) {
+            sizeTree[i] += change;
+        }
+    }
+
+    private void rebuildSizeTree() {
+        int chunkCount = chunks.size();
+        sizeTree = new int[chunkCount + 1];
+        for (int i = 1; i <= chunkCount; i++) {
+            sizeTree[i] += chunks.get(i - 1).size();
+            int parent = i + (i & -i);
+            if (parent <= chunkCount) {
+                sizeTree[parent] += sizeTree[i];
+            }
+        }
+    }
+
+    /**
+     * Moves the upper half of a chunk into a new chunk right after it.
+     */
+    private void splitChunk(int chunkIndex) {
+        C chunk = chunks.get(chunkIndex);
+        C upperHalf = chunkFactory.create();
+        int half = chunk.size() / 2;
+        upperHalf.addAll(chunk.subList(half, chunk.size()));
+        for (int i = chunk.size() - 1; i >= half; i--) {
+            chunk.remove(i); //Removes from the end, so that nothing is moved.
+        }
+        chunks.add(chunkIndex + 1, upperHalf);
+        rebuildSizeTree();
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Creates and copies the chunks of one ChunkedList.
+     *
+     * @param <C> Type of the chunks.
+     */
+    interface ChunkFactory<C> {
+        /**
+         * Returns an empty chunk of the list.
+         *
+         * @return Empty chunk.
+         */
+        C create();
+
+        /**
+         * Returns a copy of a chunk of the list that this factory was made for by forCopy.
+         *
+         * @param chunk Chunk to copy.
+         * @return Copy of the chunk.
+         */
+        C copy(C chunk);
+
+        /**
+         * Returns the factory for a copy of the list, which copies any state shared by the chunks once.
+         *
+         * @return Factory of the chunks of the copy.
+         */
+        ChunkFactory<C> forCopy();
+    }
+}
@@ -0,0 +1,287 @@
+package hyddd.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A list of tasks that keeps every field of the tasks in its own column of primitives instead of keeping
+ * the tasks themselves: the types in a byte array, whether they are done in a BitSet, the times as minutes
+ * since the epoch in a long array, and the task info in a StringPool. The chunks of a columnar TaskList share
+ * one StringPool, made by chunkFactory, so that a task info repeated anywhere in the list is kept once.
+ * Leaving the task info aside, the columns take about 21 bytes for every task, a third of the memory of the
+ * tasks themselves.
+ * Note: The indexes of a TaskList are not kept in columns, and usually take more memory than the columns.
+ * The KeywordIndex keeps 8 bytes for every word of a task, and about 250 bytes for every distinct word.
+ * The DescriptionIndex keeps about 40 bytes for every distinct task info. The TimeIndex keeps 8 bytes for
+ * every deadline or event, and about 140 bytes for every distinct minute. So a task whose words all appear in
+ * other tasks takes another 50 to 100 bytes in the indexes, and every word that no other task has adds
+ * about 250 bytes.
+ * Tasks are rebuilt from the columns every time they are read, so a change made to a task that is read
+ * from the list must be written back with set.
+ * This trades time for memory. Every get allocates a new task, including each lookup of an index, and the
+ * task status and save data info that a Task keeps once rendered are lost with it, so list, find and save
+ * render every task again each time. A columnar TaskList suits lists too large to keep as tasks, not lists
+ * that are listed often.
+ */
+public class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    //Constant values
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private final StringPool taskInfoPool;
+    private final BitSet doneFlags;
+    private long[] ids;
+    private byte[] types;
+    private long[] times;
+    private int[] taskInfos;
+    private int size;
+
+    /**
+     * Initializes an empty list.
+     */
+    public ColumnarTaskList() {
+        this(new StringPool());
+    }
+
+    /**
+     * Initializes an empty list that keeps its task info in a pool shared with other lists.
+     *
+     * @param taskInfoPool Pool of the task info.
+     */
+    ColumnarTaskList(StringPool taskInfoPool) {
+        this.taskInfoPool = taskInfoPool;
+        this.doneFlags = new BitSet();
+        this.ids = new long[INITIAL_CAPACITY];
+        this.types = new byte[INITIAL_CAPACITY];
+        this.times = new long[INITIAL_CAPACITY];
+        this.taskInfos = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Initializes a list with a copy of all the columns of another list. Copying the columns is much faster
+     * than copying the tasks, as no task is rebuilt.
+     *
+     * @param other List to copy.
+     */
+    public ColumnarTaskList(ColumnarTaskList other) {
+        this(other, new StringPool(other.taskInfoPool));
+    }
+
+    /**
+     * Initializes a list with a copy of all the columns of another list, whose task info is in taskInfoPool under
+     * the same references, e.g. a copy of the pool that the other list shares with its neighbours.
+     *
+     * @param other List to copy.
+     * @param taskInfoPool Pool of the task info of the copy.
+     */
+    ColumnarTaskList(ColumnarTaskList other, StringPool taskInfoPool) {
+        this.taskInfoPool = taskInfoPool;
+        this.doneFlags = (BitSet) other.doneFlags.clone();
+        this.ids = Arrays.copyOf(other.ids, other.ids.length);
+        this.types = Arrays.copyOf(other.types, other.types.length);
+        this.times = Arrays.copyOf(other.times, other.times.length);
+        this.taskInfos = Arrays.copyOf(other.taskInfos, other.taskInfos.length);
+        this.size = other.size;
+    }
+
+    /**
+     * Returns the task at a position, rebuilt from the columns.
+     *
+     * @param index Position of the task.
+     * @return Task at the position.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        boolean isDone = doneFlags.get(index);
+        String taskInfo = taskInfoPool.get(taskInfos[index]);
+        LocalDateTime time = times[index] == NO_TIME
+                ? null
+                : LocalDateTime.ofEpochSecond(times[index] * 60, 0, ZoneOffset.UTC);
+
+        Task task;
+        switch (types[index]) {
+        case DEADLINE: task = new Deadline(isDone, taskInfo, time);
+        break;
+        case EVENT: task = new Event(isDone, taskInfo, time);
+        break;
+        default: task = new ToDo(isDone, taskInfo);
+        break;
+        }
+        task.setId(ids[index]);
+        return task;
+    }
+
+    /**
+     * Returns the number of tasks in the list.
+     *
+     * @return Integer indicates the number of tasks.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces the task at a position.
+     *
+     * @param index Position of the task.
+     * @param task Task to put in the position.
+     * @return Task that was in the position.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Task oldTask = get(index);
+        taskInfoPool.release(taskInfos[index]);
+        writeTask(index, task);
+        return oldTask;
+    }
+
+    /**
+     * Inserts a task at a position, moving the tasks after it back by one.
+     *
+     * @param index Position to insert at.
+     * @param task Task to insert.
+     */
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            times = Arrays.copyOf(times, capacity);
+            taskInfos = Arrays.copyOf(taskInfos, capacity);
+        }
+
+        int movedCount = size - index;
+        System.arraycopy(ids, index, ids, index + 1, movedCount);
+        System.arraycopy(types, index, types, index + 1, movedCount);
+        System.arraycopy(times, index, times, index + 1, movedCount);
+        System.arraycopy(taskInfos, index, taskInfos, index + 1, movedCount);
+        for (int i = doneFlags.previousSetBit(size - 1); i >= index; i = doneFlags.previousSetBit(i - 1)) {
+            doneFlags.clear(i);
+            doneFlags.set(i + 1);
+        }
+        size++;
+        writeTask(index, task);
+        modCount++;
+    }
+
+    /**
+     * Removes the task at a position, moving the tasks after it forward by one.
+     *
+     * @param index Position of the task.
+     * @return Task removed.
+     */
+    @Override
+    public Task remove(int index) {
+        Task task = get(index);
+        taskInfoPool.release(taskInfos[index]);
+
+        int movedCount = size - index - 1;
+        System.arraycopy(ids, index + 1, ids, index, movedCount);
+        System.arraycopy(types, index + 1, types, index, movedCount);
+        System.arraycopy(times, index + 1, times, index, movedCount);
+        System.arraycopy(taskInfos, index + 1, taskInfos, index, movedCount);
+        doneFlags.clear(index);
+        for (int i = doneFlags.nextSetBit(index + 1); i >= 0 && i < size; i = doneFlags.nextSetBit(i + 1)) {
+            doneFlags.clear(i);
+            doneFlags.set(i - 1);
+        }
+        size--;
+        modCount++;
+        return task;
+    }
+
+    /**
+     * Removes all the tasks in the list.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            taskInfoPool.release(taskInfos[i]);
+        }
+        doneFlags.clear();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns a factory of the chunks of a ChunkedList that all keep their task info in one StringPool.
+     *
+     * @return Factory of the chunks.
+     */
+    static ChunkedList.ChunkFactory<ColumnarTaskList> chunkFactory() {
+        return new SharedPoolFactory(new StringPool());
+    }
+
+    /**
+     * Returns the id of the task at a position, without rebuilding the task.
+     *
+     * @param index Position of the task.
+     * @return Id of the task.
+     */
+    long getId(int index) {
+        checkIndex(index, size);
+        return ids[index];
+    }
+
+    private void writeTask(int index, Task task) {
+        LocalDateTime time = task.getTime();
+        ids[index] = task.getId();
+        types[index] = returnTypeCode(task.getTaskType());
+        times[index] = time == null ? NO_TIME : TimeIndex.toEpochMinute(time);
+        taskInfos[index] = taskInfoPool.acquire(task.getTaskInfo());
+        doneFlags.set(index, task.isDone());
+    }
+
+    private static byte returnTypeCode(String taskType) {
+        switch (taskType) {
+        case "D": return DEADLINE;
+        case "E": return EVENT;
+        default: return TODO;
+        }
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Makes the chunks of one ChunkedList, which share a StringPool. A copy of the list copies the pool once,
+     * and its chunks share the copy.
+     */
+    private static class SharedPoolFactory implements ChunkedList.ChunkFactory<ColumnarTaskList> {
+        private final StringPool taskInfoPool;
+
+        SharedPoolFactory(StringPool taskInfoPool) {
+            this.taskInfoPool = taskInfoPool;
+        }
+
+        @Override
+        public ColumnarTaskList create() {
+            return new ColumnarTaskList(taskInfoPool);
+        }
+
+        @Override
+        public ColumnarTaskList copy(ColumnarTaskList chunk) {
+            return new ColumnarTaskList(chunk, taskInfoPool);
+        }
+
+        @Override
+        public ChunkedList.ChunkFactory<ColumnarTaskList> forCopy() {
+            return new SharedPoolFactory(new StringPool(taskInfoPool));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package hyddd.task;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Hash index of the task info of every task in a TaskList. It allows TaskList to tell if a task
+ * is a duplicate without going through the whole list.
+ * The index follows every change of the TaskList as one of its listeners.
+ */
+class DescriptionIndex implements TaskListListener {
+    private final HashMap<String, Integer> taskInfoCounts;
+
+    /**
+     * Builds the index for the existing tasks.
+     *
+     * @param tasks Tasks to be indexed.
+     */
+    DescriptionIndex(List<Task> tasks) {
+        this.taskInfoCounts = new HashMap<>();
+        tasks.forEach(task -> taskInfoCounts.merge(task.getTaskInfo(), 1, Integer::sum));
+    }
+
+    /**
+     * Returns if any task has the same task info.
+     *
+     * @param taskInfo Task info to look for.
+     * @return A boolean value of whether any task has the same task info.
+     */
+    boolean contains(String taskInfo) {
+        return taskInfoCounts.containsKey(taskInfo);
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        taskInfoCounts.merge(task.getTaskInfo(), 1, Integer::sum);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        taskInfoCounts.computeIfPresent(task.getTaskInfo(), (taskInfo, count) -> count == 1 ? null : count - 1);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        //Marking a task as done does not change its task info.
+    }
+}
@@ -1,8 +1,6 @@
 package hyddd.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 
 /**
  * @@author Hang Zelin
@@ -31,12 +29,12 @@ public class Event extends Task {
     }
 
     /**
-     * Returns the task info in the format of "[type][] task info (/at ...)".
+     * Renders the task info in the format of "[type][] task info (/at ...)".
      *
      * @return Task info parsed in the format hyddd executes.
      */
     @Override
-    public String getTaskStatus() {
+    protected String renderTaskStatus() {
         String doneStatus;
         String taskStatus;
         if (!this.isDone) {
@@ -49,6 +47,36 @@ public class Event extends Task {
         return taskStatus;
     }
 
+    /**
+     * Returns the type of this task, which is "E".
+     *
+     * @return Type of this task.
+     */
+    @Override
+    public String getTaskType() {
+        return TASKTYPE;
+    }
+
+    /**
+     * Returns the task info without its type, done status or time.
+     *
+     * @return Task info.
+     */
+    @Override
+    public String getTaskInfo() {
+        return this.task;
+    }
+
+    /**
+     * Returns the time of this task, or null if the time is unknown.
+     *
+     * @return Time of this task.
+     */
+    @Override
+    public LocalDateTime getTime() {
+        return this.time;
+    }
+
     /**
      * Returns the Parsed time info in the format of "MMM dd yyyy HH:mm"
      * Note: This method is only applicable for "event" and "deadline" type task.
@@ -59,7 +87,7 @@ public class Event extends Task {
     public String parsedTime() {
         String parsedTime;
         if (this.time != null) {
-            parsedTime = this.time.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm", Locale.ENGLISH));
+            parsedTime = this.time.format(TIME_FORMATTER);
         } else {
             parsedTime = "I don't know the time. Maybe your format is in correct!";
         }
@@ -138,13 +166,13 @@ public class Event extends Task {
     }
 
     /**
-     * Returns the task info in the format of save data requirement,
+     * Renders the task info in the format of save data requirement,
      * that is: "taskType | done or not | task info | time".
      *
      * @return Task info in the format of "taskType | done or not | task info | time".
      */
     @Override
-    public String getSaveDataInfo() {
+    protected String renderSaveDataInfo() {
         String dataInfo;
         int value;
         if (this.isDone) {
@@ -157,12 +185,23 @@ public class Event extends Task {
     }
 
 
+    /**
+     * Returns if this task is done.
+     *
+     * @return A boolean value of whether this task is done.
+     */
+    @Override
+    public boolean isDone() {
+        return this.isDone;
+    }
+
     /**
      * Marks this task as done.
      */
     @Override
     public void markDone() {
         this.isDone = true;
+        clearRenderedInfo();
     }
 
     /**
@@ -171,6 +210,7 @@ public class Event extends Task {
     @Override
     public void resetDone() {
         this.isDone = false;
+        clearRenderedInfo();
     }
 
 
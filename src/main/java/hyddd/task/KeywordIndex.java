@@ -0,0 +1,198 @@
+package hyddd.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Inverted index from the words in the task info "[type][] task info ..." of every task to the tasks
+ * that contain them. Words are the pieces of the task info split by spaces.
+ * It allows TaskList to find the tasks that contain a keyword by looking up words instead of every task, so that
+ * finding tasks keeps the same meaning as String.contains:
+ * 1. A whole word in the middle of a keyword with spaces is looked up directly.
+ * 2. The first piece of such a keyword must end a word, and its last piece must start one. The words are kept
+ *    sorted, and sorted again by their reversed spelling, so the words that start or end with a piece are found
+ *    next to each other without looking at the other words.
+ * 3. A keyword without spaces may be anywhere inside a word, so it is looked for in every distinct word.
+ *    This is the only lookup that costs time in proportion to the number of distinct words.
+ * The index follows every change of the TaskList as one of its listeners.
+ */
+class KeywordIndex implements TaskListListener {
+    private static final String SPACE = " ";
+    private static final int DONE_STATUS_POSITION = 4;
+    private final TreeMap<String, PostingList> postings;
+    private final TreeMap<String, PostingList> reversedPostings; //The same lists, by the reversed words.
+
+    /**
+     * Builds the index for the existing tasks.
+     *
+     * @param tasks Tasks to be indexed.
+     */
+    KeywordIndex(List<Task> tasks) {
+        this.postings = new TreeMap<>();
+        this.reversedPostings = new TreeMap<>();
+        tasks.forEach(task -> addWords(task.getId(), returnWords(task.getTaskStatus())));
+    }
+
+    private static HashSet<String> returnWords(String taskStatus) {
+        return new HashSet<>(Arrays.asList(taskStatus.split(SPACE, -1)));
+    }
+
+    private static String reverse(String word) {
+        return new StringBuilder(word).reverse().toString();
+    }
+
+    private void addWords(long id, Iterable<String> words) {
+        for (String word : words) {
+            PostingList ids = postings.get(word);
+            if (ids == null) {
+                ids = new PostingList();
+                postings.put(word, ids);
+                reversedPostings.put(reverse(word), ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    private void removeWords(long id, Iterable<String> words) {
+        for (String word : words) {
+            PostingList ids = postings.get(word);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(word);
+                    reversedPostings.remove(reverse(word));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted ids of all the tasks that may contain the keyword, or null if every task may
+     * contain it. Every task that contains the keyword is among them, but callers still need to check
+     * each of them, as a keyword with spaces is looked up by only one of its pieces.
+     *
+     * @param keyword Keyword to look for.
+     * @return Sorted ids of the tasks that may contain the keyword.
+     */
+    long[] findCandidates(String keyword) {
+        if (keyword.isEmpty()) {
+            return null;
+        }
+        if (!keyword.contains(SPACE)) {
+            return collectIds(findWordsContaining(keyword));
+        }
+
+        //The piece that matches the fewest tasks is used.
+        String[] pieces = keyword.split(SPACE, -1);
+        ArrayList<List<PostingList>> lookups = new ArrayList<>();
+        for (int i = 1; i < pieces.length - 1; i++) {
+            if (!pieces[i].isEmpty()) {
+                PostingList ids = postings.get(pieces[i]);
+                lookups.add(ids == null ? Collections.emptyList() : Collections.singletonList(ids));
+            }
+        }
+        String firstPiece = pieces[0];
+        String lastPiece = pieces[pieces.length - 1];
+        if (!firstPiece.isEmpty()) {
+            lookups.add(findWordsStartingWith(reversedPostings, reverse(firstPiece)));
+        }
+        if (!lastPiece.isEmpty()) {
+            lookups.add(findWordsStartingWith(postings, lastPiece));
+        }
+
+        List<PostingList> bestLookup = null;
+        int fewestTasks = Integer.MAX_VALUE;
+        for (List<PostingList> lookup : lookups) {
+            int taskCount = lookup.stream().mapToInt(PostingList::size).sum();
+            if (taskCount < fewestTasks) {
+                bestLookup = lookup;
+                fewestTasks = taskCount;
+            }
+        }
+        return bestLookup == null ? null : collectIds(bestLookup);
+    }
+
+    /**
+     * Returns the lists of the words in a sorted map that start with prefix, which are next to each other.
+     */
+    private static List<PostingList> findWordsStartingWith(TreeMap<String, PostingList> sortedPostings,
+            String prefix) {
+        ArrayList<PostingList> matches = new ArrayList<>();
+        for (Map.Entry<String, PostingList> entry : sortedPostings.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            matches.add(entry.getValue());
+        }
+        return matches;
+    }
+
+    private List<PostingList> findWordsContaining(String keyword) {
+        ArrayList<PostingList> matches = new ArrayList<>();
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            if (entry.getKey().contains(keyword)) {
+                matches.add(entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    private static long[] collectIds(List<PostingList> matches) {
+        int size = matches.stream().mapToInt(PostingList::size).sum();
+        long[] ids = new long[size];
+        int position = 0;
+        for (PostingList match : matches) {
+            match.copyTo(ids, position);
+            position += match.size();
+        }
+        if (matches.size() <= 1) {
+            return ids;
+        }
+
+        //A task may contain more than one of the matching words.
+        Arrays.sort(ids);
+        int distinctSize = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinctSize++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinctSize);
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        addWords(task.getId(), returnWords(task.getTaskStatus()));
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        removeWords(task.getId(), returnWords(task.getTaskStatus()));
+    }
+
+    /**
+     * Updates the words of a task that is marked as done or undone. Only the done status "[X]" or "[ ]"
+     * is changed, so the previous task info is the current one with the done status flipped.
+     */
+    @Override
+    public void taskUpdated(int index, Task task) {
+        String taskStatus = task.getTaskStatus();
+        String previousTaskStatus = taskStatus.substring(0, DONE_STATUS_POSITION) + (task.isDone() ? " " : "X")
+                + taskStatus.substring(DONE_STATUS_POSITION + 1);
+        HashSet<String> words = returnWords(taskStatus);
+        HashSet<String> previousWords = returnWords(previousTaskStatus);
+
+        HashSet<String> removedWords = new HashSet<>(previousWords);
+        removedWords.removeAll(words);
+        previousWords.forEach(words::remove);
+        removeWords(task.getId(), removedWords);
+        addWords(task.getId(), words);
+    }
+}
@@ -0,0 +1,29 @@
+package hyddd.task;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A list of tasks that are read from disk a page at a time, keeping only the recently used pages in memory.
+ * A TaskList never goes through all the tasks of such a list, e.g. to index them, unless a command asks for
+ * all of them, so that the memory used follows the tasks in use rather than the size of the list.
+ * The list keeps its file open until it is closed, and so does every copy of it.
+ */
+public interface PagedTaskList extends List<Task>, Closeable {
+    /**
+     * Returns a copy of the list that reads the same pages, without reading any task.
+     * The copy is not changed by any later change of this list, and should be closed once it is not used.
+     *
+     * @return Copy of the list.
+     */
+    PagedTaskList copy();
+
+    /**
+     * Releases the file of the list, which is closed once the list and all its copies are closed.
+     * Tasks that are not in memory cannot be read after the list is closed.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,217 @@
+package hyddd.task;
+
+import java.util.Arrays;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A sorted list of task ids, which is what an index keeps for every key. The ids are kept in a long array
+ * instead of a set of tasks, so that an index takes only a few bytes for every task it refers to.
+ * As new tasks always get the largest id, adding a new task is an append at the end of the list.
+ * A list that grows beyond a block is split into blocks of ids, so that adding or removing an id anywhere
+ * in a long list, e.g. the word shared by every task, only moves the ids in one block.
+ */
+class PostingList {
+    //Constant values
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int MAX_BLOCK_SIZE = 1024;
+    private long[] ids; //Ids of a list that fits in one block.
+    private long[][] blocks; //Blocks of ids of a longer list, or null.
+    private int[] blockSizes;
+    private int blockCount;
+    private int size;
+
+    PostingList() {
+        this.ids = new long[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds an id to the list, keeping the list sorted. Nothing is changed if the id is already there.
+     *
+     * @param id Id of the task.
+     */
+    void add(long id) {
+        if (blocks != null) {
+            addToBlocks(id);
+            return;
+        }
+
+        int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0 && position < size) {
+            return; //The id is already in the list.
+        }
+
+        int insertPosition = position >= 0 ? position : -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, insertPosition, ids, insertPosition + 1, size - insertPosition);
+        ids[insertPosition] = id;
+        size++;
+        if (size > MAX_BLOCK_SIZE) {
+            splitIntoBlocks();
+        }
+    }
+
+    /**
+     * Removes an id from the list if it is there.
+     *
+     * @param id Id of the task.
+     */
+    void remove(long id) {
+        if (blocks != null) {
+            removeFromBlocks(id);
+            return;
+        }
+
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies all the ids in the list into an array from a specific position.
+     *
+     * @param destination Array to copy into.
+     * @param position Position in the array to copy to.
+     */
+    void copyTo(long[] destination, int position) {
+        copyTo(destination, position, 0, size);
+    }
+
+    /**
+     * Copies the ids in the list from one position (inclusive) to another (exclusive) into an array.
+     *
+     * @param destination Array to copy into.
+     * @param position Position in the array to copy to.
+     * @param from Position in the list of the first id to copy.
+     * @param to Position in the list after the last id to copy.
+     */
+    void copyTo(long[] destination, int position, int from, int to) {
+        if (blocks == null) {
+            System.arraycopy(ids, from, destination, position, to - from);
+            return;
+        }
+
+        int blockStart = 0;
+        int copied = position;
+        for (int b = 0; b < blockCount && blockStart < to; b++) {
+            int start = Math.max(from - blockStart, 0);
+            int end = Math.min(to - blockStart, blockSizes[b]);
+            if (start < end) {
+                System.arraycopy(blocks[b], start, destination, copied, end - start);
+                copied += end - start;
+            }
+            blockStart += blockSizes[b];
+        }
+    }
+
+    private void splitIntoBlocks() {
+        int half = MAX_BLOCK_SIZE / 2;
+        blockCount = (size + half - 1) / half;
+        blocks = new long[blockCount * 2][];
+        blockSizes = new int[blockCount * 2];
+        for (int b = 0; b < blockCount; b++) {
+            int start = b * half;
+            blockSizes[b] = Math.min(half, size - start);
+            blocks[b] = new long[MAX_BLOCK_SIZE + 1];
+            System.arraycopy(ids, start, blocks[b], 0, blockSizes[b]);
+        }
+        ids = null;
+    }
+
+    /**
+     * Returns the block that an id belongs in, which is the last block starting with an id not larger than it.
+     */
+    private int findBlock(long id) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blocks[middle][0] <= id) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private void addToBlocks(long id) {
+        int lastBlock = blockCount - 1;
+        boolean isAppend = blockSizes[lastBlock] == 0 || blocks[lastBlock][blockSizes[lastBlock] - 1] < id;
+        if (isAppend && blockSizes[lastBlock] == MAX_BLOCK_SIZE) {
+            //Starts a new block, so that a list that grows at its end has full blocks.
+            insertBlock(blockCount, new long[MAX_BLOCK_SIZE + 1]);
+            blocks[lastBlock + 1][0] = id;
+            blockSizes[lastBlock + 1] = 1;
+            size++;
+            return;
+        }
+
+        int b = isAppend ? lastBlock : findBlock(id);
+        long[] block = blocks[b];
+        int position = Arrays.binarySearch(block, 0, blockSizes[b], id);
+        if (position >= 0) {
+            return; //The id is already in the list.
+        }
+
+        int insertPosition = -position - 1;
+        System.arraycopy(block, insertPosition, block, insertPosition + 1, blockSizes[b] - insertPosition);
+        block[insertPosition] = id;
+        blockSizes[b]++;
+        size++;
+        if (blockSizes[b] > MAX_BLOCK_SIZE) {
+            int half = blockSizes[b] / 2;
+            long[] upperHalf = new long[MAX_BLOCK_SIZE + 1];
+            System.arraycopy(block, half, upperHalf, 0, blockSizes[b] - half);
+            insertBlock(b + 1, upperHalf);
+            blockSizes[b + 1] = blockSizes[b] - half;
+            blockSizes[b] = half;
+        }
+    }
+
+    private void removeFromBlocks(long id) {
+        int b = findBlock(id);
+        long[] block = blocks[b];
+        int position = Arrays.binarySearch(block, 0, blockSizes[b], id);
+        if (position < 0) {
+            return;
+        }
+
+        System.arraycopy(block, position + 1, block, position, blockSizes[b] - position - 1);
+        blockSizes[b]--;
+        size--;
+        if (blockSizes[b] == 0 && blockCount > 1) {
+            System.arraycopy(blocks, b + 1, blocks, b, blockCount - b - 1);
+            System.arraycopy(blockSizes, b + 1, blockSizes, b, blockCount - b - 1);
+            blockCount--;
+            blocks[blockCount] = null;
+        }
+    }
+
+    private void insertBlock(int b, long[] block) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            blockSizes = Arrays.copyOf(blockSizes, blockCount * 2);
+        }
+        System.arraycopy(blocks, b, blocks, b + 1, blockCount - b);
+        System.arraycopy(blockSizes, b, blockSizes, b + 1, blockCount - b);
+        blocks[b] = block;
+        blockSizes[b] = 0;
+        blockCount++;
+    }
+}
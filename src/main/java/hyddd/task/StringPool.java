@@ -0,0 +1,147 @@
+package hyddd.task;
+
+import java.util.Arrays;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A pool of strings that keeps one copy of every distinct string, and refers to it by an integer.
+ * Every string is counted by the number of references to it, and is dropped once nothing refers to it.
+ * The pool is an open addressing hash table over int arrays, so that it takes only a few bytes for every
+ * string besides the string itself.
+ */
+class StringPool {
+    //Constant values
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+    private String[] strings;
+    private int[] referenceCounts;
+    private int[] table; //Reference + 1 of the string in every slot, or EMPTY or REMOVED.
+    private int[] freeReferences;
+    private int freeCount;
+    private int nextReference;
+    private int usedSlots;
+
+    StringPool() {
+        this.strings = new String[INITIAL_CAPACITY];
+        this.referenceCounts = new int[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.freeReferences = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Initializes a pool with a copy of another pool, in which every string has the same reference.
+     *
+     * @param other Pool to copy.
+     */
+    StringPool(StringPool other) {
+        this.strings = Arrays.copyOf(other.strings, other.strings.length);
+        this.referenceCounts = Arrays.copyOf(other.referenceCounts, other.referenceCounts.length);
+        this.table = Arrays.copyOf(other.table, other.table.length);
+        this.freeReferences = Arrays.copyOf(other.freeReferences, other.freeReferences.length);
+        this.freeCount = other.freeCount;
+        this.nextReference = other.nextReference;
+        this.usedSlots = other.usedSlots;
+    }
+
+    /**
+     * Returns the reference to a string, adding the string to the pool if it is not there,
+     * and counts one more reference to it.
+     *
+     * @param string String to refer to.
+     * @return Integer that refers to the string.
+     */
+    int acquire(String string) {
+        int slot = findSlot(string);
+        if (table[slot] > EMPTY) {
+            int reference = table[slot] - 1;
+            referenceCounts[reference]++;
+            return reference;
+        }
+
+        int reference = freeCount > 0 ? freeReferences[--freeCount] : nextReference++;
+        if (reference == strings.length) {
+            strings = Arrays.copyOf(strings, reference * 2);
+            referenceCounts = Arrays.copyOf(referenceCounts, reference * 2);
+        }
+        strings[reference] = string;
+        referenceCounts[reference] = 1;
+        if (table[slot] == EMPTY) {
+            usedSlots++;
+        }
+        table[slot] = reference + 1;
+        if (usedSlots * 2 > table.length) {
+            rehash();
+        }
+        return reference;
+    }
+
+    /**
+     * Counts one less reference to a string, and drops the string if nothing refers to it any more.
+     *
+     * @param reference Integer that refers to the string.
+     */
+    void release(int reference) {
+        if (--referenceCounts[reference] > 0) {
+            return;
+        }
+
+        table[findSlot(strings[reference])] = REMOVED;
+        strings[reference] = null;
+        if (freeCount == freeReferences.length) {
+            freeReferences = Arrays.copyOf(freeReferences, freeCount * 2);
+        }
+        freeReferences[freeCount++] = reference;
+    }
+
+    /**
+     * Returns the string that a reference refers to.
+     *
+     * @param reference Integer that refers to the string.
+     * @return String referred to.
+     */
+    String get(int reference) {
+        return strings[reference];
+    }
+
+    /**
+     * Returns the slot of a string in the table, or the slot to put it in if it is not in the pool.
+     */
+    private int findSlot(String string) {
+        int mask = table.length - 1;
+        int slot = mix(string.hashCode()) & mask;
+        int firstRemoved = -1;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == REMOVED) {
+                firstRemoved = firstRemoved == -1 ? slot : firstRemoved;
+            } else if (strings[table[slot] - 1].equals(string)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return firstRemoved == -1 ? slot : firstRemoved;
+    }
+
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private void rehash() {
+        int liveCount = nextReference - freeCount;
+        int capacity = INITIAL_CAPACITY * 2;
+        while (capacity < liveCount * 4) {
+            capacity *= 2;
+        }
+
+        table = new int[capacity];
+        usedSlots = 0;
+        for (int reference = 0; reference < nextReference; reference++) {
+            if (strings[reference] != null) {
+                table[findSlot(strings[reference])] = reference + 1;
+                usedSlots++;
+            }
+        }
+    }
+}
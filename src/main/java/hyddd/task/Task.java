@@ -1,17 +1,80 @@
 package hyddd.task;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
 /**
  * @@author Hang Zelin
  *
  * An abstract class that encapsulates the info basic for a task.
+ * The task status and save data info of a task are rendered once and kept until the task is marked as done
+ * or undone, as they are read for every task by list, find and tell.
  */
 public abstract class Task {
+    //Constant values
+    static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm", Locale.ENGLISH);
+    private static final int DONE_POSITION = 4;
+    private long id;
+    private String taskStatus;
+    private String saveDataInfo;
+
+    /**
+     * Returns the id of this task. Ids are given by TaskList, and the tasks in a TaskList are always
+     * in the order of their ids.
+     *
+     * @return Id of this task.
+     */
+    long getId() {
+        return id;
+    }
+
+    void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Returns the task info in the format of "[type][] task info ..."
      *
      * @return Task info parsed in the format hyddd executes.
      */
-    public abstract String getTaskStatus();
+    public String getTaskStatus() {
+        //The done status is part of the string, so a string rendered before a change is never returned.
+        String status = taskStatus;
+        if (status == null || (status.charAt(DONE_POSITION) == 'X') != isDone()) {
+            status = renderTaskStatus();
+            taskStatus = status;
+        }
+        return status;
+    }
+
+    /**
+     * Renders the task info in the format of "[type][] task info ...", which is then kept by getTaskStatus.
+     *
+     * @return Task info parsed in the format hyddd executes.
+     */
+    protected abstract String renderTaskStatus();
+
+    /**
+     * Returns the type of this task, which is "T", "D" or "E".
+     *
+     * @return Type of this task.
+     */
+    public abstract String getTaskType();
+
+    /**
+     * Returns the task info without its type, done status or time.
+     *
+     * @return Task info.
+     */
+    public abstract String getTaskInfo();
+
+    /**
+     * Returns the time of this task, or null if the task does not have a time.
+     *
+     * @return Time of this task.
+     */
+    public abstract LocalDateTime getTime();
 
     /**
      * Returns the Parsed time info in the format of "MMM dd yyyy HH:mm".
@@ -35,7 +98,21 @@ public abstract class Task {
      *
      * @return Task info in the format of "taskType | done or not | task info | time".
      */
-    public abstract String getSaveDataInfo();
+    public String getSaveDataInfo() {
+        String dataInfo = saveDataInfo;
+        if (dataInfo == null || (dataInfo.charAt(DONE_POSITION) == '1') != isDone()) {
+            dataInfo = renderSaveDataInfo();
+            saveDataInfo = dataInfo;
+        }
+        return dataInfo;
+    }
+
+    /**
+     * Renders the task info in the format of save data requirement, which is then kept by getSaveDataInfo.
+     *
+     * @return Task info in the format of "taskType | done or not | task info | time".
+     */
+    protected abstract String renderSaveDataInfo();
 
     /**
      * Returns if other task has same info as this task.
@@ -44,11 +121,26 @@ public abstract class Task {
      */
     public abstract boolean returnIsSameTask(String task);
 
+    /**
+     * Returns if this task is done.
+     *
+     * @return A boolean value of whether this task is done.
+     */
+    public abstract boolean isDone();
+
     /**
      * Marks this task as done.
      */
     public abstract void markDone();
 
+    /**
+     * Clears the rendered task status and save data info. It is called every time the task is changed.
+     */
+    protected void clearRenderedInfo() {
+        taskStatus = null;
+        saveDataInfo = null;
+    }
+
     /**
      * Resets this task as undone.
      */
@@ -1,9 +1,16 @@
 package hyddd.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Locale;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import hyddd.exceptions.ExceptionType;
 import hyddd.exceptions.HydddException;
@@ -15,26 +22,182 @@ import hyddd.logics.Parser;
  *
  * Stores all the tasks for the hyddd. hyddd can refer to this tasklist to see a specific task
  * or make use of the methods in it to execute an operation.
+ * It is safe to use from many threads. Methods that change the TaskList take the write lock of a StampedLock,
+ * and methods that read it, e.g. list, find and tell, take the read lock, so that many of them run at once.
+ * Reading the size or a single task does not lock at all unless a change happens at the same time.
+ * A thread that holds the write lock may call any other method, e.g. LastExecution undoing a change.
+ * The tasks of a PagedTaskList are neither given ids nor indexed, as that would read every task. Instead,
+ * finding tasks and checking for duplicates go through the tasks, a page at a time.
+ * Note: Each method is atomic on its own. Checking an index and then using it, as commands do, needs a lock
+ * around both, such as the one Hyddd holds for every command.
+ * Locks are always taken in the same order: the command lock of Hyddd, then the lock of the TaskList, then
+ * the locks of its listeners, which are notified while the TaskList is still locked.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final List<Task> tasks;
+    private final StampedLock lock;
+    private volatile Thread writer; //Thread that holds the write lock, or null.
+    private final ArrayList<TaskListListener> listeners;
+    private final boolean isIndexed;
+    private final DescriptionIndex descriptionIndex;
+    private final KeywordIndex keywordIndex;
+    private final TimeIndex timeIndex;
     private LastExecution lastExecution;
+    private int modificationCount;
+    private long nextId;
 
     /**
-     * Constructor to store all the tasks in a Generic ArrayList.
+     * Constructor to store all the tasks in a Generic List. The list is kept as the store of the TaskList,
+     * so it can be a ColumnarTaskList to hold a large number of tasks in less memory, or a PagedTaskList to
+     * keep only the tasks in use in memory.
      *
      * @param tasks A list of Task type variables.
      */
-    public TaskList(ArrayList<Task> tasks) {
+    public TaskList(List<Task> tasks) {
         this.tasks = tasks;
-        this.lastExecution = new LastExecution("Null", null, 0, null);
+        this.lock = new StampedLock();
+        this.listeners = new ArrayList<>();
+        this.isIndexed = !(tasks instanceof PagedTaskList);
+        List<Task> indexedTasks = isIndexed ? tasks : Collections.emptyList();
+        for (int i = 0; i < indexedTasks.size(); i++) {
+            Task task = tasks.get(i);
+            task.setId(nextId++);
+            tasks.set(i, task); //Writes the id back, in case the list does not keep the task itself.
+        }
+        this.descriptionIndex = new DescriptionIndex(indexedTasks);
+        this.keywordIndex = new KeywordIndex(indexedTasks);
+        this.timeIndex = new TimeIndex(indexedTasks);
+        if (isIndexed) {
+            this.listeners.add(descriptionIndex);
+            this.listeners.add(keywordIndex);
+            this.listeners.add(timeIndex);
+        }
+        this.lastExecution = new LastExecution("Null", null, 0, this);
     }
 
     /**
      * Another Constructor to initialize an empty TaskList if there is no save data.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(newTaskStore(false));
+    }
+
+    /**
+     * Returns an empty list to keep the tasks of a TaskList in. The tasks are kept in small chunks, so that
+     * finding, inserting and deleting a task by its index takes O(log n) time instead of moving the whole
+     * tail of the list. In columnar mode, every chunk is a ColumnarTaskList, and the chunks share one StringPool.
+     *
+     * @param isColumnarMode Indicates if the tasks are kept in columns.
+     * @return Empty list to keep tasks in.
+     */
+    public static List<Task> newTaskStore(boolean isColumnarMode) {
+        if (isColumnarMode) {
+            return new ChunkedList<Task, ColumnarTaskList>(ColumnarTaskList.chunkFactory());
+        }
+        return new ChunkedList<Task, ArrayList<Task>>(ArrayList::new, ArrayList::new);
+    }
+
+    /**
+     * Adds a listener which will be notified every time the TaskList is changed.
+     * Listeners are notified while the write lock is held.
+     *
+     * @param listener Listener to be notified.
+     */
+    public void addListener(TaskListListener listener) {
+        long stamp = lockForWriting();
+        try {
+            listeners.add(listener);
+        } finally {
+            unlockForWriting(stamp);
+        }
+    }
+
+    /**
+     * Takes the write lock, unless the calling thread holds it already, in which case 0 is returned.
+     */
+    private long lockForWriting() {
+        if (writer == Thread.currentThread()) {
+            return 0L;
+        }
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        return stamp;
+    }
+
+    private void unlockForWriting(long stamp) {
+        if (stamp == 0L) {
+            return;
+        }
+        writer = null;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Takes the read lock, unless the calling thread holds the write lock, in which case 0 is returned.
+     */
+    private long lockForReading() {
+        return writer == Thread.currentThread() ? 0L : lock.readLock();
+    }
+
+    private void unlockForReading(long stamp) {
+        if (stamp != 0L) {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T read(Supplier<T> reading) {
+        long stamp = lockForReading();
+        try {
+            return reading.get();
+        } finally {
+            unlockForReading(stamp);
+        }
+    }
+
+    /**
+     * Reads without locking, and reads again under the read lock if the TaskList was changed meanwhile.
+     * An exception thrown while a change was happening, e.g. by a chunk being split, is not trusted either.
+     */
+    private <T> T readOptimistically(Supplier<T> reading) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reading.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return read(reading);
+    }
+
+    /**
+     * Returns the number of changes made to the TaskList since it was created. The count is increased
+     * by every add, done, delete and undo, so that callers can tell if the TaskList has been changed.
+     *
+     * @return Integer indicates the number of changes made to the TaskList.
+     */
+    public int getModificationCount() {
+        return readOptimistically(() -> modificationCount);
+    }
+
+    private void notifyInserted(int index, Task task) {
+        modificationCount++;
+        listeners.forEach(listener -> listener.taskInserted(index, task));
+    }
+
+    private void notifyRemoved(int index, Task task) {
+        modificationCount++;
+        listeners.forEach(listener -> listener.taskRemoved(index, task));
+    }
+
+    private void notifyUpdated(int index, Task task) {
+        modificationCount++;
+        listeners.forEach(listener -> listener.taskUpdated(index, task));
     }
 
     /**
@@ -43,6 +206,10 @@ public class TaskList {
      * @return A list of tasks info.
      */
     public String printListUi() {
+        return read(this::printList);
+    }
+
+    private String printList() {
         StringBuilder text = new StringBuilder();
         text.append("Here are the tasks in your list:\n");
         //@@author Hang Zelin-reused
@@ -54,53 +221,94 @@ public class TaskList {
         return text.toString();
     }
 
-    private boolean returnIsFound(String time, String unparsedInfo, String task) {
-        Parser parser = new Parser("");
-
-        String timeInFormat = (parser.parseTime(time) != null)
-                ? parser.parseTime(time).format(DateTimeFormatter
-                .ofPattern("MMM dd yyyy HH:mm", Locale.ENGLISH))
-                : "Null time Info";
-        boolean isMessageContains = task.contains(time)
-                || task.contains(timeInFormat);
-        boolean isUnparsedInfoContains = unparsedInfo != null && (unparsedInfo.contains(time)
-                || unparsedInfo.contains(timeInFormat));
-
-        return isMessageContains || isUnparsedInfoContains;
-    }
-
     private void checkIsDuplicate(String task) throws HydddException {
-        for (int index = 0; index < tasks.size(); index++) {
-            if (tasks.get(index).returnIsSameTask(task)) {
-                throw new HydddException(ExceptionType.DUPLICATE_TASK_ERROR);
-            }
+        boolean isDuplicate = isIndexed
+                ? descriptionIndex.contains(task)
+                : tasks.stream().anyMatch(t -> t.getTaskInfo().equals(task));
+        if (isDuplicate) {
+            throw new HydddException(ExceptionType.DUPLICATE_TASK_ERROR);
         }
     }
 
     /**
-     * Returns all the tasks that match the time users take in.
+     * Returns all the tasks that match the time users take in. The deadlines and events at that time
+     * are looked up in the TimeIndex, and tasks that mention the time in their info are found as well.
      *
      * @param time String message that indicates time users take in to find specific event.
      * @return All the tasks that match the time users take in.
      */
     public String getSpecificDateEvent(String time) {
-        StringBuilder text = new StringBuilder();
+        LocalDateTime[] period = new Parser("").parsePeriod(time);
+        return read(() -> printTasksAt(period, time));
+    }
 
-        //@@author Hang Zelin-reused
-        //Reused from:
-        //https://github.com/nus-cs2103-AY2122S1/ip/pull/60/commits/7f61b2b2976ae38932af343a7c8c3b71405cc6aa
-        //Inspired by his stream method.
-        final int[] count = {0}; //count the number of the events happen on the time.
-        tasks.stream()
-                .filter(task -> returnIsFound(time,
-                        task.getTimeForSaveData(), task.getTaskStatus()))
-                .forEach(task -> text.append(++count[0])
-                        .append(".").append(task.getTaskStatus()).append("\n"));
-
-        if (count[0] == 0) {
+    private String printTasksAt(LocalDateTime[] period, String time) {
+        if (!isIndexed) {
+            String text = printTasks(tasks.stream().filter(task -> (period != null
+                    && isInPeriod(task, period[0], period[1])) || task.getTaskStatus().contains(time)), 0);
+            return text.isEmpty() ? "Sorry. There is no tasks occurred on the time you give me!! :(\n" : text;
+        }
+
+        long[] idsAtTime = period == null ? new long[0] : timeIndex.findIds(period[0], period[1]);
+        long[] ids = LongStream.concat(Arrays.stream(idsAtTime), Arrays.stream(findIdsContaining(time)))
+                .sorted().distinct().toArray();
+
+        if (ids.length == 0) {
             return "Sorry. There is no tasks occurred on the time you give me!! :(\n";
         }
-        return text.toString();
+        return printTasks(ids, 0);
+    }
+
+    /**
+     * Returns if a task has a time from start (inclusive) to end (exclusive), to the minute as in the TimeIndex.
+     */
+    private static boolean isInPeriod(Task task, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime time = task.getTime();
+        if (time == null) {
+            return false;
+        }
+        long minute = TimeIndex.toEpochMinute(time);
+        return minute >= TimeIndex.toEpochMinute(start) && minute < TimeIndex.toEpochMinute(end);
+    }
+
+    /**
+     * Returns the number of deadlines and events from a start time (inclusive) to an end time (exclusive).
+     *
+     * @param start Start of the period.
+     * @param end End of the period.
+     * @return Integer indicates the number of tasks in the period.
+     */
+    public int countTasksInPeriod(LocalDateTime start, LocalDateTime end) {
+        return read(() -> isIndexed
+                ? timeIndex.count(start, end)
+                : (int) tasks.stream().filter(task -> isInPeriod(task, start, end)).count());
+    }
+
+    /**
+     * Returns a page of the deadlines and events from a start time (inclusive) to an end time (exclusive)
+     * in the order of their time. They are looked up in the TimeIndex, so that only the tasks on the page are read.
+     *
+     * @param start Start of the period.
+     * @param end End of the period.
+     * @param limit Largest number of tasks in a page.
+     * @param page Page to return. The first page is page 1.
+     * @return The tasks on the page, numbered from the first task in the period.
+     */
+    public String getTasksInPeriod(LocalDateTime start, LocalDateTime end, int limit, int page) {
+        long skipped = (long) (page - 1) * limit;
+        return read(() -> {
+            if (!isIndexed) {
+                String text = printTasks(tasks.stream().filter(task -> isInPeriod(task, start, end))
+                        .sorted(Comparator.comparing(Task::getTime)).skip(skipped).limit(limit), skipped);
+                return text.isEmpty() ? "Sorry. There is no tasks occurred in the period you give me!! :(\n" : text;
+            }
+
+            long[] ids = timeIndex.findIdsInTimeOrder(start, end, skipped, limit);
+            if (ids.length == 0) {
+                return "Sorry. There is no tasks occurred in the period you give me!! :(\n";
+            }
+            return printTasks(ids, skipped);
+        });
     }
 
     /**
@@ -109,35 +317,96 @@ public class TaskList {
      * @return hyddd's response for undo message.
      */
     public String undo() {
-        String text = lastExecution.undo();
-        this.lastExecution = new LastExecution("Null", null, 0, null);
-        return text;
+        long stamp = lockForWriting();
+        try {
+            String text = lastExecution.undo();
+            this.lastExecution = new LastExecution("Null", null, 0, this);
+            return text;
+        } finally {
+            unlockForWriting(stamp);
+        }
     }
 
     /**
      * Returns all the tasks that match the key word users take in.
+     * The tasks that may match are looked up in the KeywordIndex, so that only they are checked.
      *
      * @param keyword String message that indicates the keyword users want to search.
      * @return All the tasks that match the key word users take in.
      */
     public String findTasks(String keyword) {
-        StringBuilder text = new StringBuilder();
-        final int[] count = {0};
+        return read(() -> {
+            if (!isIndexed) {
+                String text = printTasks(tasks.stream().filter(task -> task.getTaskStatus().contains(keyword)), 0);
+                return text.isEmpty() ? "Sorry. There is no tasks matching the keyword you give me!! :(\n" : text;
+            }
+
+            long[] ids = findIdsContaining(keyword);
+            if (ids.length == 0) {
+                return "Sorry. There is no tasks matching the keyword you give me!! :(\n";
+            }
+
+            return printTasks(ids, 0);
+        });
+    }
+
+    private long[] findIdsContaining(String keyword) {
+        long[] candidateIds = keywordIndex.findCandidates(keyword);
+        Stream<Task> candidates = candidateIds == null
+                ? tasks.stream()
+                : Arrays.stream(candidateIds).mapToObj(id -> tasks.get(indexOfId(id)));
+        return candidates.filter(task -> task.getTaskStatus().contains(keyword))
+                .mapToLong(Task::getId)
+                .toArray();
+    }
+
+    /**
+     * Returns the tasks with specific ids in the order given, numbered after a number of tasks already shown.
+     */
+    private String printTasks(long[] ids, long shownCount) {
+        return printTasks(Arrays.stream(ids).mapToObj(id -> tasks.get(indexOfId(id))), shownCount);
+    }
 
+    /**
+     * Returns the tasks in the order given, numbered after a number of tasks already shown.
+     */
+    private String printTasks(Stream<Task> tasksToPrint, long shownCount) {
+        StringBuilder text = new StringBuilder();
         //@@author Hang Zelin-reused
         //Reused from:
         //https://github.com/nus-cs2103-AY2122S1/ip/pull/60/commits/7f61b2b2976ae38932af343a7c8c3b71405cc6aa
         //Inspired by his stream method.
-        tasks.stream()
-                .filter(task -> task.getTaskStatus().contains(keyword))
-                .forEach(task -> text.append(++count[0]).append(".")
-                        .append(task.getTaskStatus()).append("\n"));
+        final long[] count = {shownCount};
+        tasksToPrint.forEach(task -> text.append(++count[0]).append(".")
+                .append(task.getTaskStatus()).append("\n"));
+        return text.toString();
+    }
 
-        if (count[0] == 0) {
-            return "Sorry. There is no tasks matching the keyword you give me!! :(\n";
+    /**
+     * Returns the index of the task with a specific id. As tasks are always in the order of their ids,
+     * the task is found by binary search.
+     */
+    private int indexOfId(long id) {
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = returnId(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
         }
+        throw new IllegalStateException("Task " + id + " is not in the TaskList.");
+    }
 
-        return text.toString();
+    private long returnId(int index) {
+        return tasks instanceof ColumnarTaskList
+                ? ((ColumnarTaskList) tasks).getId(index)
+                : tasks.get(index).getId();
     }
 
     /**
@@ -146,9 +415,71 @@ public class TaskList {
      * @param index Integer indicates the index for the task.
      */
     public void markDone(int index) {
-        Task task = this.tasks.get(index);
-        task.markDone();
-        lastExecution = new LastExecution("done", task, index, tasks);
+        long stamp = lockForWriting();
+        try {
+            Task task = this.tasks.get(index);
+            task.markDone();
+            this.tasks.set(index, task);
+            lastExecution = new LastExecution("done", task, index, this);
+            notifyUpdated(index, task);
+        } finally {
+            unlockForWriting(stamp);
+        }
+    }
+
+    /**
+     * Marks a batch of tasks as done, which is undone as a whole. Tasks that are done already are left as they are,
+     * and if no task is changed, undo still undoes the change before.
+     *
+     * @param indexes Integers indicate the indexes for the tasks, in ascending order.
+     * @return Integer indicates the number of tasks marked as done.
+     */
+    public int markAllDone(int[] indexes) {
+        long stamp = lockForWriting();
+        try {
+            return markAll(indexes);
+        } finally {
+            unlockForWriting(stamp);
+        }
+    }
+
+    private int markAll(int[] indexes) {
+        ArrayList<Task> markedTasks = new ArrayList<>();
+        int[] markedIndexes = new int[indexes.length];
+        for (int index : indexes) {
+            Task task = this.tasks.get(index);
+            if (task.isDone()) {
+                continue;
+            }
+            task.markDone();
+            this.tasks.set(index, task);
+            markedIndexes[markedTasks.size()] = index;
+            markedTasks.add(task);
+            notifyUpdated(index, task);
+        }
+
+        if (!markedTasks.isEmpty()) {
+            lastExecution = new LastExecution("done", markedTasks,
+                    Arrays.copyOf(markedIndexes, markedTasks.size()), this);
+        }
+        return markedTasks.size();
+    }
+
+    /**
+     * Resets a specific task as undone. It is used by LastExecution to undo a done operation.
+     *
+     * @param index Integer indicates the index for the task.
+     */
+    public void resetDone(int index) {
+        long stamp = lockForWriting();
+        try {
+            Task task = this.tasks.get(index);
+            task.resetDone();
+            this.tasks.set(index, task);
+            notifyUpdated(index, task);
+        } finally {
+            unlockForWriting(stamp);
+        }
     }
 
     /**
@@ -157,9 +488,78 @@ public class TaskList {
      * @param index Integer indicates the index for the task.
      */
     public void delete(int index) {
-        Task task = this.tasks.get(index);
-        this.tasks.remove(index);
-        lastExecution = new LastExecution("delete", task, index, tasks);
+        long stamp = lockForWriting();
+        try {
+            Task task = this.tasks.remove(index);
+            lastExecution = new LastExecution("delete", task, index, this);
+            notifyRemoved(index, task);
+        } finally {
+            unlockForWriting(stamp);
+        }
+    }
+
+    /**
+     * Deletes a batch of tasks, which is undone as a whole. If there is no task to delete, undo still undoes
+     * the change before.
+     *
+     * @param indexes Integers indicate the indexes for the tasks, in ascending order without repeats.
+     */
+    public void deleteAll(int[] indexes) {
+        long stamp = lockForWriting();
+        try {
+            Task[] deletedTasks = new Task[indexes.length];
+            //Deletes from the last task, so that the indexes of the tasks left to delete do not change.
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                deletedTasks[i] = this.tasks.remove(indexes[i]);
+                notifyRemoved(indexes[i], deletedTasks[i]);
+            }
+            if (indexes.length > 0) {
+                lastExecution = new LastExecution("delete", Arrays.asList(deletedTasks), indexes.clone(), this);
+            }
+        } finally {
+            unlockForWriting(stamp);
+        }
+    }
+
+    /**
+     * Returns the indexes of all the tasks that are done, in ascending order.
+     *
+     * @return Integers indicate the indexes of the done tasks.
+     */
+    public int[] findDoneIndexes() {
+        return read(() -> IntStream.range(0, tasks.size())
+                .filter(index -> tasks.get(index).isDone())
+                .toArray());
+    }
+
+    /**
+     * Puts a deleted task back to its original position. It is used by LastExecution to undo a delete operation.
+     *
+     * @param index Integer indicates the original index for the task.
+     * @param task The deleted task.
+     */
+    public void restore(int index, Task task) {
+        long stamp = lockForWriting();
+        try {
+            this.tasks.add(index, task);
+            notifyInserted(index, task);
+        } finally {
+            unlockForWriting(stamp);
+        }
+    }
+
+    /**
+     * Removes the most recently added task. It is used by LastExecution to undo an add operation.
+     */
+    public void removeLast() {
+        long stamp = lockForWriting();
+        try {
+            int index = this.tasks.size() - 1;
+            Task task = this.tasks.remove(index);
+            notifyRemoved(index, task);
+        } finally {
+            unlockForWriting(stamp);
+        }
     }
 
     private void createNewTask(String taskType, String task, LocalDateTime parsedTime) {
@@ -168,8 +568,10 @@ public class TaskList {
             boolean isMatch = t.toString().equals(taskType.toUpperCase());
             if (isMatch) {
                 Task newTask = t.assignTaskType(t, task, parsedTime);
+                newTask.setId(nextId++);
                 tasks.add(newTask);
-                lastExecution = new LastExecution("add", newTask, tasks.size() - 1, tasks);
+                lastExecution = new LastExecution("add", newTask, tasks.size() - 1, this);
+                notifyInserted(tasks.size() - 1, newTask);
                 break;
             }
         }
@@ -187,8 +589,13 @@ public class TaskList {
     public void add(String taskType, String task, String time) throws HydddException {
         Parser parser = new Parser("");
         LocalDateTime parsedTime = parser.parseTime(time);
-        checkIsDuplicate(task);
-        createNewTask(taskType, task, parsedTime);
+        long stamp = lockForWriting();
+        try {
+            checkIsDuplicate(task);
+            createNewTask(taskType, task, parsedTime);
+        } finally {
+            unlockForWriting(stamp);
+        }
     }
 
     /**
@@ -198,7 +605,64 @@ public class TaskList {
      * @return Task users refer to.
      * */
     public Task get(int index) {
-        return this.tasks.get(index);
+        return readOptimistically(() -> this.tasks.get(index));
+    }
+
+    /**
+     * Returns a read-only view of all the tasks in the TaskList, in the order of the list.
+     * The view is not locked, so it should only be read while the TaskList is not being changed.
+     * Use copyTasks to read the tasks while other threads may change the TaskList.
+     *
+     * @return List of all the tasks.
+     */
+    public List<Task> asList() {
+        return Collections.unmodifiableList(this.tasks);
+    }
+
+    /**
+     * Returns a copy of all the tasks in the TaskList, in the order of the list, e.g. to be saved while
+     * the TaskList keeps changing. A ChunkedList is copied chunk by chunk, a ColumnarTaskList is copied
+     * column by column, and a PagedTaskList is copied without reading its tasks. The copy should be given to
+     * releaseCopy once it is not used, so that the copy of a PagedTaskList closes its file.
+     *
+     * @return Copy of all the tasks.
+     */
+    public List<Task> copyTasks() {
+        return copyTasks(() -> { });
+    }
+
+    /**
+     * Returns a copy of all the tasks like copyTasks, and runs an action under the same read lock, so that
+     * no change to the TaskList can happen between the two, e.g. to note which changes the copy holds.
+     *
+     * @param whileLocked Action to run while the tasks are copied.
+     * @return Copy of all the tasks.
+     */
+    public List<Task> copyTasks(Runnable whileLocked) {
+        return read(() -> {
+            whileLocked.run();
+            if (tasks instanceof ChunkedList) {
+                return ((ChunkedList<Task, ?>) tasks).copy();
+            }
+            if (tasks instanceof ColumnarTaskList) {
+                return new ColumnarTaskList((ColumnarTaskList) tasks);
+            }
+            if (tasks instanceof PagedTaskList) {
+                return ((PagedTaskList) tasks).copy();
+            }
+            return new ArrayList<>(this.tasks);
+        });
+    }
+
+    /**
+     * Releases a copy made by copyTasks, closing its file if it is a PagedTaskList.
+     *
+     * @param copy Copy of the tasks that is not used any more.
+     */
+    public static void releaseCopy(List<Task> copy) {
+        if (copy instanceof PagedTaskList) {
+            ((PagedTaskList) copy).close();
+        }
     }
 
     /**
@@ -207,7 +671,7 @@ public class TaskList {
      * @return Integer indicates the size of the TaskList.
      */
     public int size() {
-        return this.tasks.size();
+        return readOptimistically(this.tasks::size);
     }
 
     /**
@@ -217,7 +681,7 @@ public class TaskList {
      * @throws HydddException Throws when the index is invalid.
      */
     public void detectIndex(int index) throws HydddException {
-        if (index < 0 || index >= this.tasks.size()) {
+        if (index < 0 || index >= size()) {
             throw new HydddException(ExceptionType.WRONG_INDEX_ERROR);
         }
     }
@@ -227,7 +691,7 @@ public class TaskList {
      * It also contains a method AssignTask Type to find the specific type of task to create.
      */
     public enum OperationType {
-        BYE, DONE, DELETE, TELL, FIND, UNDO, HELP, LIST, TODO, DEADLINE, EVENT;
+        BYE, DONE, DELETE, TELL, UPCOMING, FIND, UNDO, HELP, STATS, LIST, TODO, DEADLINE, EVENT;
 
         /**
          * Returns a task in a specific operationType. It can be either todo, deadline or event.
@@ -0,0 +1,33 @@
+package hyddd.task;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Listener that is notified every time a TaskList is changed. It allows other parts of hyddd,
+ * e.g. storage, to follow the changes of the list without scanning through the whole list.
+ */
+public interface TaskListListener {
+    /**
+     * Notifies that a task is inserted into the TaskList.
+     *
+     * @param index Index of the inserted task.
+     * @param task The inserted task.
+     */
+    void taskInserted(int index, Task task);
+
+    /**
+     * Notifies that a task is removed from the TaskList.
+     *
+     * @param index Index of the task before it is removed.
+     * @param task The removed task.
+     */
+    void taskRemoved(int index, Task task);
+
+    /**
+     * Notifies that a task in the TaskList is marked as done or undone.
+     *
+     * @param index Index of the updated task.
+     * @param task The updated task.
+     */
+    void taskUpdated(int index, Task task);
+}
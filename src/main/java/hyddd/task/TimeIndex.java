@@ -0,0 +1,152 @@
+package hyddd.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * @@author Hang Zelin
+ *
+ * Index from the time of every deadline and event to the tasks at that time, kept in the order of time.
+ * Times are kept as minutes since the epoch, as hyddd never keeps the seconds of a time.
+ * It allows TaskList to find all the tasks in a period of time by looking up a range of the index,
+ * instead of formatting and comparing the time of every task.
+ * The index follows every change of the TaskList as one of its listeners.
+ */
+class TimeIndex implements TaskListListener {
+    private static final int INITIAL_PAGE_CAPACITY = 256;
+    private final TreeMap<Long, PostingList> postings;
+
+    /**
+     * Builds the index for the existing tasks.
+     *
+     * @param tasks Tasks to be indexed.
+     */
+    TimeIndex(List<Task> tasks) {
+        this.postings = new TreeMap<>();
+        tasks.forEach(this::addTask);
+    }
+
+    /**
+     * Returns the number of minutes between the epoch and a time.
+     *
+     * @param time Time to be converted.
+     * @return Long indicates the minutes since the epoch.
+     */
+    static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private void addTask(Task task) {
+        LocalDateTime time = task.getTime();
+        if (time != null) {
+            postings.computeIfAbsent(toEpochMinute(time), key -> new PostingList()).add(task.getId());
+        }
+    }
+
+    private void removeTask(Task task) {
+        LocalDateTime time = task.getTime();
+        if (time == null) {
+            return;
+        }
+
+        long minute = toEpochMinute(time);
+        PostingList ids = postings.get(minute);
+        if (ids != null) {
+            ids.remove(task.getId());
+            if (ids.isEmpty()) {
+                postings.remove(minute);
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted ids of all the tasks with a time from start (inclusive) to end (exclusive).
+     *
+     * @param start Start of the period.
+     * @param end End of the period.
+     * @return Sorted ids of the tasks in the period.
+     */
+    long[] findIds(LocalDateTime start, LocalDateTime end) {
+        NavigableMap<Long, PostingList> range = returnRange(start, end);
+        long[] result = new long[count(start, end)];
+        int position = 0;
+        for (PostingList ids : range.values()) {
+            ids.copyTo(result, position);
+            position += ids.size();
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the number of tasks with a time from start (inclusive) to end (exclusive).
+     *
+     * @param start Start of the period.
+     * @param end End of the period.
+     * @return Integer indicates the number of tasks in the period.
+     */
+    int count(LocalDateTime start, LocalDateTime end) {
+        int count = 0;
+        for (PostingList ids : returnRange(start, end).values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the ids of the tasks with a time from start (inclusive) to end (exclusive) in the order of their time,
+     * leaving out a number of the earliest ones. Tasks at the same time are in the order of their ids.
+     * Whole minutes of tasks are skipped at a time, so only the tasks returned are copied.
+     *
+     * @param start Start of the period.
+     * @param end End of the period.
+     * @param skipped Number of the earliest tasks to leave out.
+     * @param limit Largest number of ids to return.
+     * @return Ids of the tasks in the order of their time.
+     */
+    long[] findIdsInTimeOrder(LocalDateTime start, LocalDateTime end, long skipped, int limit) {
+        long[] result = new long[Math.min(limit, INITIAL_PAGE_CAPACITY)];
+        int position = 0;
+        long toSkip = skipped;
+        for (PostingList ids : returnRange(start, end).values()) {
+            if (toSkip >= ids.size()) {
+                toSkip -= ids.size();
+                continue;
+            }
+            int count = (int) Math.min(ids.size() - toSkip, limit - position);
+            if (position + count > result.length) {
+                result = Arrays.copyOf(result, (int) Math.min((long) limit, Math.max(position + count, position * 2L)));
+            }
+            ids.copyTo(result, position, (int) toSkip, (int) toSkip + count);
+            position += count;
+            toSkip = 0;
+            if (position == limit) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, position);
+    }
+
+    private NavigableMap<Long, PostingList> returnRange(LocalDateTime start, LocalDateTime end) {
+        return postings.subMap(toEpochMinute(start), true, toEpochMinute(end), false);
+    }
+
+    @Override
+    public void taskInserted(int index, Task task) {
+        addTask(task);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        removeTask(task);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        //The time of a task never changes.
+    }
+}
@@ -1,5 +1,7 @@
 package hyddd.task;
 
+import java.time.LocalDateTime;
+
 /**
  * @@author Hang Zelin
  *
@@ -23,12 +25,12 @@ public class ToDo extends Task {
     }
 
     /**
-     * Returns the task info in the format of "[type][] task info".
+     * Renders the task info in the format of "[type][] task info".
      *
      * @return Task info parsed in the format hyddd executes.
      */
     @Override
-    public String getTaskStatus() {
+    protected String renderTaskStatus() {
         String doneStatus;
         String taskStatus;
         if (!this.isDone) {
@@ -41,6 +43,36 @@ public class ToDo extends Task {
         return taskStatus;
     }
 
+    /**
+     * Returns the type of this task, which is "T".
+     *
+     * @return Type of this task.
+     */
+    @Override
+    public String getTaskType() {
+        return TASKTYPE;
+    }
+
+    /**
+     * Returns the task info without its type, done status or time.
+     *
+     * @return Task info.
+     */
+    @Override
+    public String getTaskInfo() {
+        return this.task;
+    }
+
+    /**
+     * Returns the time of this task, which is null as a todo does not have a time.
+     *
+     * @return Time of this task.
+     */
+    @Override
+    public LocalDateTime getTime() {
+        return null;
+    }
+
     /**
      * Returns the Parsed time info in the format of "MMM dd yyyy HH:mm".
      * Note: This method is only applicable for "event" and "deadline" type task.
@@ -64,13 +96,13 @@ public class ToDo extends Task {
     }
 
     /**
-     * Returns the task info in the format of save data requirement,
+     * Renders the task info in the format of save data requirement,
      * that is: "taskType | done or not | task info | time".
      *
      * @return Task info in the format of "taskType | done or not | task info | time".
      */
     @Override
-    public String getSaveDataInfo() {
+    protected String renderSaveDataInfo() {
         String dataInfo;
         int value;
         if (this.isDone) {
@@ -94,12 +126,23 @@ public class ToDo extends Task {
         return isSameTask;
     }
 
+    /**
+     * Returns if this task is done.
+     *
+     * @return A boolean value of whether this task is done.
+     */
+    @Override
+    public boolean isDone() {
+        return this.isDone;
+    }
+
     /**
      * Marks this task as done.
      */
     @Override
     public void markDone() {
         this.isDone = true;
+        clearRenderedInfo();
     }
 
     /**
@@ -108,5 +151,6 @@ public class ToDo extends Task {
     @Override
     public void resetDone() {
         this.isDone = false;
+        clearRenderedInfo();
     }
 }
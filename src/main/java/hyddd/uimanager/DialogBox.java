@@ -14,12 +14,14 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
 
 /**
  * @@author Hang Zelin
  *
  * This control represents a dialog box consisting of an ImageView to represent the speaker's face and a label
  * containing text from the speaker.
+ * A DialogBox can be given new text, so that a TranscriptCell reuses the same DialogBox for many dialogs.
  */
 public class DialogBox extends HBox {
     private static final String EXCEPTION_IDENTIFIER = "OOPS";
@@ -27,6 +29,7 @@ public class DialogBox extends HBox {
     private Label dialog;
     @FXML
     private ImageView displayPicture;
+    private Paint defaultTextFill;
 
     private DialogBox(String text, Image img) {
         try {
@@ -38,6 +41,7 @@ public class DialogBox extends HBox {
             e.printStackTrace();
         }
 
+        defaultTextFill = dialog.getTextFill();
         setDialogText(text);
         displayPicture.setImage(img);
     }
@@ -57,11 +61,9 @@ public class DialogBox extends HBox {
      *
      * @param text String value of hyddd's response
      */
-    private void setDialogText(String text) {
+    void setDialogText(String text) {
         dialog.setText(text);
-        if (hasExceptionResponse(text)) {
-            dialog.setTextFill(Color.rgb(236, 70, 70));
-        }
+        dialog.setTextFill(hasExceptionResponse(text) ? Color.rgb(236, 70, 70) : defaultTextFill);
     }
 
     /**
@@ -39,4 +39,12 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Saves the changes that are not saved yet and closes the files of hyddd when the GUI exits.
+     */
+    @Override
+    public void stop() {
+        hyddd.close();
+    }
 }
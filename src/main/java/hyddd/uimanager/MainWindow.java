@@ -1,38 +1,58 @@
 package hyddd.uimanager;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import hyddd.main.Hyddd;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundImage;
 import javafx.scene.layout.BackgroundSize;
-import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
 
 /**
  * @@author Hang Zelin
  *
  * Controller for MainWindow. Provides the layout for the other controls.
+ * Commands are run one by one on a worker thread, so that the window stays responsive while a slow command,
+ * e.g. a find over a huge list, is running. The responses are shown on the JavaFX thread in the order the
+ * commands were sent, and a working indicator is shown if a command takes longer than a moment.
+ * The application exits only after the commands already sent are done.
+ * The transcript is a ListView of plain TranscriptEntry data, shown by a few reused TranscriptCells, and only
+ * the most recent dialogs are kept.
  * Note: All images, including user's profile, hyddd's profile, background image
  * are free to use. They are available in https://www.zhihu.com/, where people
  * are happy to share nice images with one another.
  */
 public class MainWindow extends AnchorPane {
+    //Constant values
+    private static final double WORKING_DELAY_MILLIS = 150;
+    private static final int MAX_TRANSCRIPT_SIZE = 1000;
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<TranscriptEntry> transcript;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator workingIndicator;
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hyddd-command");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition workingDelay = new PauseTransition(Duration.millis(WORKING_DELAY_MILLIS));
+    private int runningCommandCount = 0;
     private boolean isEnded = false;
-    private Rectangle emptySpace;
     private Hyddd hyddd;
     private BackgroundImage backgroundImage;
     private final Image userImage = new Image(this.getClass().getResourceAsStream("/images/User.jpg"));
@@ -51,23 +71,18 @@ public class MainWindow extends AnchorPane {
                 null, null, null, backgroundSize);
     }
 
-    private Rectangle setEmptySpace() {
-        //Set empty space between dialogs.
-        emptySpace = new Rectangle(400, 40);
-        emptySpace.setFill(Color.TRANSPARENT);
-        return emptySpace;
-    }
-
     /**
      * Initialize DialogBox and MainWindow stuff.
      */
     @FXML
     public void initialize() {
-        //Set scrollPane
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        //Set transcript
+        transcript.setCellFactory(listView -> new TranscriptCell(userImage, hydddImage));
         //Set background
         this.setBackgroundImage();
-        dialogContainer.setBackground(new Background(backgroundImage));
+        transcript.setBackground(new Background(backgroundImage));
+        //Set working indicator, which is only shown if a command is still running after a moment.
+        workingDelay.setOnFinished(event -> workingIndicator.setVisible(runningCommandCount > 0));
     }
 
     /**
@@ -79,9 +94,20 @@ public class MainWindow extends AnchorPane {
         hyddd = h;
         TextUi textUi = new TextUi();
         String response = textUi.helloMessage();
-        dialogContainer.getChildren().addAll(
-                DialogBox.getHydddDialog(response, hydddImage)
-        );
+        addToTranscript(TranscriptEntry.ofHyddd(response));
+    }
+
+    /**
+     * Appends dialogs to the transcript and scrolls to the last one. The oldest dialogs are dropped once
+     * the transcript is longer than MAX_TRANSCRIPT_SIZE.
+     */
+    private void addToTranscript(TranscriptEntry... entries) {
+        ObservableList<TranscriptEntry> items = transcript.getItems();
+        items.addAll(entries);
+        if (items.size() > MAX_TRANSCRIPT_SIZE) {
+            items.remove(0, items.size() - MAX_TRANSCRIPT_SIZE);
+        }
+        transcript.scrollTo(items.size() - 1);
     }
 
     private boolean checkIfEnded(String input) {
@@ -91,31 +117,50 @@ public class MainWindow extends AnchorPane {
     }
 
 
+    /**
+     * Exits the application once the user sends anything after "bye". The commands still queued are run and
+     * shown first, and Platform.exit then lets Main close hyddd.
+     */
     private void checkIfQuit() {
-        //Successfully exit the application
         if (isEnded) {
-            System.exit(0);
+            commandExecutor.execute(() -> Platform.runLater(Platform::exit));
+            commandExecutor.shutdown();
         }
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing hyddd's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Sends user input to hyddd on the worker thread and clears the user input. The response is shown by
+     * showResponse once the command is done, so the user can keep typing in the meantime.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = hyddd.getResponse(input);
 
         checkIfQuit();
-        dialogContainer.getChildren().addAll(
-                setEmptySpace(),
-                DialogBox.getUserDialog(input, userImage),
-                setEmptySpace(),
-                DialogBox.getHydddDialog(response, hydddImage)
-        );
+        if (commandExecutor.isShutdown()) {
+            return; //hyddd is exiting once the commands already sent are done.
+        }
         isEnded = checkIfEnded(input);
         userInput.clear();
+        runningCommandCount++;
+        workingDelay.playFromStart();
+        commandExecutor.execute(() -> {
+            String response = hyddd.getResponse(input);
+            Platform.runLater(() -> showResponse(input, response));
+        });
+    }
+
+    /**
+     * Appends two dialogs to the transcript, one echoing user input and the other containing hyddd's reply.
+     * It is run on the JavaFX thread.
+     */
+    private void showResponse(String input, String response) {
+        runningCommandCount--;
+        if (runningCommandCount == 0) {
+            workingDelay.stop();
+            workingIndicator.setVisible(false);
+        }
+        addToTranscript(TranscriptEntry.ofUser(input), TranscriptEntry.ofHyddd(response));
     }
 
 }
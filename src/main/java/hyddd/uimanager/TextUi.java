@@ -44,19 +44,22 @@ public class TextUi {
         dividingLine = "\n -- Points to Note -- \n";
         operationInfo = "I support the following commands:\n"
                 + "1) list: See all tasks in your list.\n"
-                + "2) done: Mark a specific task as done.\n"
-                + "3) delete: Delete a specific task.\n"
-                + "4) tell: Find tasks by keyword of time.\n"
+                + "2) done: Mark a specific task as done, or many with 'done 10-500'.\n"
+                + "3) delete: Delete a specific task, or many with 'delete 1,4,9' or 'delete where done'.\n"
+                + "4) tell: Find tasks by keyword of time, or in a period with 'tell <date> to <date>'.\n"
                 + "5) find: Find tasks by keyword of info.\n"
                 + "6) undo: Undo a most recent command.\n"
                 + "7) todo: Create a task of type 'todo'.\n"
                 + "8) deadline: Create a task of type 'todo'\n"
                 + "9) event: Create a task of type 'event'\n"
-                + "10) help: Take a look user guide!\n";
+                + "10) help: Take a look user guide!\n"
+                + "11) upcoming: See tasks in the coming days, e.g. 'upcoming 7d'.\n"
+                + "12) stats: See how fast hyddd has been running each command.\n";
         noteInfo = "1) Time format for Deadline is '/by'.\n"
                 + "2) Time format for Event is '/at'.\n"
                 + "3) yy-mm-dd time format is supported.\n"
                 + "4) dd/mm/yy hhmm time format is supported.\n"
+                + "5) Add '/limit' and '/page' to a period or upcoming to see long results a page at a time.\n"
                 + "\nHope you enjoy your experience in hyddd!";
 
         return operationInfo + dividingLine + noteInfo;
@@ -91,6 +94,30 @@ public class TextUi {
         return text;
     }
 
+    /**
+     * Returns the Ui info for the markAllDone method in taskList.
+     *
+     * @param count Number of tasks marked as done.
+     * @return Ui message when markAllDone is invoked.
+     */
+    public String markAllDoneUi(int count) {
+        String text = "Nice! I've marked " + count + " tasks as done.\n";
+        return text;
+    }
+
+    /**
+     * Returns the Ui info for the deleteAll method in taskList.
+     *
+     * @param count Number of tasks deleted.
+     * @param size Size of the TaskList.
+     * @return Ui message when deleteAll is invoked.
+     */
+    public String deleteAllUi(int count, int size) {
+        String text = "Noted. I've removed " + count + " tasks.\n"
+                + "Now you have " + size + " tasks in the list.\n";
+        return text;
+    }
+
     /**
      * Returns the Ui info for the add method in taskList.
      *
@@ -117,6 +144,58 @@ public class TextUi {
         return text;
     }
 
+    /**
+     * Returns the Ui info for the getTasksInPeriod method in TaskLists.
+     *
+     * @return Ui message when getTasksInPeriod is invoked.
+     */
+    public String getTasksInPeriodUi() {
+        String text = "Here are all the tasks taking place in the period you give me: \n";
+        return text;
+    }
+
+    /**
+     * Returns the Ui info for the upcoming tasks.
+     *
+     * @return Ui message when upcoming tasks are shown.
+     */
+    public String upcomingUi() {
+        String text = "Here are all the tasks coming up: \n";
+        return text;
+    }
+
+    /**
+     * Returns the Ui info for a page of results, telling users which tasks are shown and how to see the rest.
+     *
+     * @param total Number of tasks in all the pages.
+     * @param limit Largest number of tasks in a page.
+     * @param page Page being shown. The first page is page 1.
+     * @return Ui message for a page of results.
+     */
+    public String pageUi(int total, int limit, int page) {
+        long first = (long) (page - 1) * limit + 1;
+        long last = Math.min(total, first + limit - 1);
+        if (first > last) {
+            return "There are " + total + " tasks in total.\n";
+        }
+
+        String text = "Showing tasks " + first + " to " + last + " of " + total + ".\n";
+        if (last < total) {
+            text += "Add '/page " + (page + 1) + "' to see more.\n";
+        }
+        return text;
+    }
+
+    /**
+     * Returns the Ui info for the statistics of hyddd.
+     *
+     * @return Ui message when statistics are shown.
+     */
+    public String statsUi() {
+        String text = "Here are the statistics of hyddd: \n";
+        return text;
+    }
+
     /**
      * Returns the Ui info for the FindTask method in taskList.
      *
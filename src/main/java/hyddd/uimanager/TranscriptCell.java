@@ -0,0 +1,46 @@
+package hyddd.uimanager;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * @@author Hang Zelin
+ *
+ * A cell of the transcript in MainWindow. The ListView only creates enough cells to fill the window and reuses
+ * them while scrolling, so every cell loads one DialogBox for users and one for hyddd once, and then only
+ * changes the text of the one it shows.
+ */
+public class TranscriptCell extends ListCell<TranscriptEntry> {
+    //Constant values
+    private static final double DIALOG_SPACING = 20;
+    private final DialogBox userDialog;
+    private final DialogBox hydddDialog;
+
+    /**
+     * Constructor for TranscriptCell.
+     *
+     * @param userImage User's image.
+     * @param hydddImage hyddd's image.
+     */
+    public TranscriptCell(Image userImage, Image hydddImage) {
+        this.userDialog = DialogBox.getUserDialog("", userImage);
+        this.hydddDialog = DialogBox.getHydddDialog("", hydddImage);
+        setPadding(new Insets(DIALOG_SPACING, 0, DIALOG_SPACING, 0));
+        setPrefWidth(0); //Lets the dialog wrap its text to the width of the list instead of scrolling sideways.
+        setStyle("-fx-background-color:transparent;");
+    }
+
+    @Override
+    protected void updateItem(TranscriptEntry entry, boolean isEmpty) {
+        super.updateItem(entry, isEmpty);
+        if (isEmpty || entry == null) {
+            setGraphic(null);
+            return;
+        }
+
+        DialogBox dialogBox = entry.isFromUser() ? userDialog : hydddDialog;
+        dialogBox.setDialogText(entry.getText());
+        setGraphic(dialogBox);
+    }
+}
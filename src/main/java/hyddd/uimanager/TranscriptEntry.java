@@ -0,0 +1,45 @@
+package hyddd.uimanager;
+
+/**
+ * @@author Hang Zelin
+ *
+ * One dialog in the transcript of MainWindow, kept as plain data. It is shown by a TranscriptCell, so that
+ * the transcript only keeps the text of old dialogs instead of their nodes.
+ */
+public class TranscriptEntry {
+    private final String text;
+    private final boolean isFromUser;
+
+    private TranscriptEntry(String text, boolean isFromUser) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+    }
+
+    /**
+     * Returns an entry of user input.
+     *
+     * @param text Text users take in.
+     * @return Entry of user input.
+     */
+    public static TranscriptEntry ofUser(String text) {
+        return new TranscriptEntry(text, true);
+    }
+
+    /**
+     * Returns an entry of hyddd's response.
+     *
+     * @param text Response hyddd gives.
+     * @return Entry of hyddd's response.
+     */
+    public static TranscriptEntry ofHyddd(String text) {
+        return new TranscriptEntry(text, false);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+}
@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import hyddd.exceptions.HydddException;
+import hyddd.task.ColumnarTaskList;
+import hyddd.task.Deadline;
+import hyddd.task.Event;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+import hyddd.task.ToDo;
+/**
+ * @author Hang Zelin
+ *
+ * A JUnit class that tests keeping tasks in a ColumnarTaskList.
+ */
+public class ColumnarTaskListTest {
+
+    private static List<String> returnSaveData(List<Task> tasks) {
+        List<String> saveData = new ArrayList<>();
+        tasks.forEach(task -> saveData.add(task.getSaveDataInfo()));
+        return saveData;
+    }
+
+    @Test
+    public void addRemoveAndSet_sameAsArrayList() {
+        List<Task> expected = new ArrayList<>();
+        List<Task> actual = new ColumnarTaskList();
+        for (List<Task> tasks : List.of(expected, actual)) {
+            tasks.add(new ToDo(false, "borrow book"));
+            tasks.add(0, new Deadline(true, "return book", LocalDate.of(2019, 12, 2).atTime(18, 0)));
+            tasks.add(1, new Event(false, "project meeting", null));
+            tasks.add(new ToDo(true, "borrow book"));
+            tasks.remove(2);
+            Task task = tasks.get(1);
+            task.markDone();
+            tasks.set(1, task);
+        }
+
+        assertEquals(returnSaveData(expected), returnSaveData(actual));
+        assertEquals(returnSaveData(actual), returnSaveData(new ColumnarTaskList((ColumnarTaskList) actual)));
+    }
+
+    @Test
+    public void taskList_columnarStore_sameResponses() throws HydddException {
+        TaskList expected = new TaskList();
+        TaskList actual = new TaskList(new ColumnarTaskList());
+        for (TaskList tasks : List.of(expected, actual)) {
+            tasks.add("todo", "borrow book", "");
+            tasks.add("deadline", "return book", "2/12/2019 1800");
+            tasks.add("event", "project meeting", "2019-12-02");
+            tasks.markDone(1);
+            tasks.delete(0);
+            tasks.undo();
+        }
+
+        assertEquals(expected.printListUi(), actual.printListUi());
+        assertEquals(expected.getSpecificDateEvent("2019-12-02"), actual.getSpecificDateEvent("2019-12-02"));
+        assertEquals(expected.findTasks("book"), actual.findTasks("book"));
+    }
+
+    @Test
+    public void columnarTaskStore_manyChunksAndCopies_sameAsArrayList() {
+        List<Task> expected = new ArrayList<>();
+        List<Task> actual = TaskList.newTaskStore(true);
+        for (List<Task> tasks : List.of(expected, actual)) {
+            for (int i = 0; i < 5000; i++) {
+                tasks.add(new ToDo(i % 3 == 0, "read book " + i % 10)); //The task info repeats across chunks.
+            }
+            for (int i = 0; i < 1000; i++) {
+                tasks.add(100, new ToDo(false, "write essay " + i)); //Splits the first chunk.
+                tasks.remove(4000);
+            }
+        }
+        assertEquals(returnSaveData(expected), returnSaveData(actual));
+
+        TaskList taskList = new TaskList(actual);
+        List<Task> copy = taskList.copyTasks();
+        List<Task> expectedCopy = new ArrayList<>(expected);
+        actual.clear(); //Releases every task info from the pool of the list, but not from the pool of the copy.
+        actual.add(new ToDo(false, "read book 1"));
+        copy.add(0, new ToDo(true, "read book 1"));
+        expectedCopy.add(0, new ToDo(true, "read book 1"));
+        assertEquals(returnSaveData(expectedCopy), returnSaveData(copy));
+        assertEquals(List.of("T | 0 | read book 1"), returnSaveData(actual));
+    }
+}
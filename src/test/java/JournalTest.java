@@ -0,0 +1,175 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hyddd.exceptions.HydddException;
+import hyddd.saveloadmanager.Journal;
+import hyddd.saveloadmanager.Storage;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+/**
+ * @author Hang Zelin
+ *
+ * A JUnit class that tests replaying the Journal on top of the save data file.
+ */
+public class JournalTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void replay_recordedChanges_sameTaskList() throws IOException, HydddException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Journal journal = new Journal(filePath);
+        journal.replay(new ArrayList<>());
+        TaskList tasks = new TaskList();
+        tasks.addListener(journal);
+
+        tasks.add("todo", "borrow book", "");
+        tasks.add("deadline", "return book", "2/12/2019 1800");
+        tasks.add("event", "project meeting", "2019-10-15");
+        tasks.markDone(1);
+        tasks.delete(0);
+        tasks.undo();
+        journal.commit();
+
+        ArrayList<Task> replayedTasks = new ArrayList<>();
+        new Journal(filePath).replay(replayedTasks);
+        assertEquals(tasks.size(), replayedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getSaveDataInfo(), replayedTasks.get(i).getSaveDataInfo());
+        }
+    }
+
+    @Test
+    public void replay_afterSavingWholeList_journalDiscarded() throws IOException, HydddException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        Journal journal = new Journal(filePath);
+        journal.replay(new ArrayList<>());
+        TaskList tasks = new TaskList();
+        tasks.addListener(journal);
+
+        tasks.add("todo", "borrow book", "");
+        journal.commit();
+        storage.saveListDataToFile(tasks);
+
+        ArrayList<Task> replayedTasks = storage.load();
+        new Journal(filePath).replay(replayedTasks);
+        assertEquals(1, replayedTasks.size());
+    }
+
+    @Test
+    public void replay_crashBeforeNewSaveData_sameTaskList() throws IOException, HydddException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        TaskList tasks = new TaskList();
+        startCompaction(tasks, filePath);
+
+        assertReplayedTasks(tasks, filePath);
+        assertReplayedTasks(tasks, filePath);
+    }
+
+    @Test
+    public void replay_crashAfterNewSaveData_sameTaskList() throws IOException, HydddException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        TaskList tasks = new TaskList();
+        new Storage(filePath).saveListDataToFile(startCompaction(tasks, filePath));
+
+        assertReplayedTasks(tasks, filePath);
+        assertReplayedTasks(tasks, filePath);
+    }
+
+    @Test
+    public void replay_recordCutOffByCrash_laterChangesKept() throws IOException, HydddException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Journal journal = new Journal(filePath);
+        journal.replay(new ArrayList<>());
+        TaskList tasks = new TaskList();
+        tasks.addListener(journal);
+        tasks.add("todo", "borrow book", "");
+        tasks.add("deadline", "return book", "2/12/2019 1800");
+        journal.commit();
+        Files.writeString(tempDir.resolve("tasks.txt.journal"), "+ 2 T | 0 | read bo",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        ArrayList<Task> restartedTasks = new ArrayList<>();
+        Journal restartedJournal = new Journal(filePath);
+        restartedJournal.replay(restartedTasks);
+        TaskList tasksAfterCrash = new TaskList(restartedTasks);
+        tasksAfterCrash.addListener(restartedJournal);
+        tasksAfterCrash.add("todo", "write essay", "");
+        tasksAfterCrash.markDone(0);
+        restartedJournal.commit();
+
+        ArrayList<Task> replayedTasks = new ArrayList<>();
+        new Journal(filePath).replay(replayedTasks);
+        assertEquals(3, replayedTasks.size());
+        for (int i = 0; i < tasksAfterCrash.size(); i++) {
+            assertEquals(tasksAfterCrash.get(i).getSaveDataInfo(), replayedTasks.get(i).getSaveDataInfo());
+        }
+    }
+
+    @Test
+    public void replay_newSaveDataOfSameLength_journalDiscarded() throws IOException, HydddException {
+        String filePath = tempDir.resolve("tasks.txt").toString();
+        Storage storage = new Storage(filePath);
+        TaskList tasks = new TaskList();
+        tasks.add("todo", "borrow book", "");
+        storage.saveListDataToFile(tasks);
+        Journal journal = new Journal(filePath);
+        journal.replay(new ArrayList<>());
+        tasks.addListener(journal);
+        tasks.add("todo", "return book", "");
+        journal.commit();
+
+        //Saves a file of the same length, which may also keep the time it was modified on a coarse clock.
+        long modifiedTime = new File(filePath).lastModified();
+        tasks.markDone(0);
+        tasks.delete(1);
+        storage.saveListDataToFile(tasks);
+        new File(filePath).setLastModified(modifiedTime);
+
+        List<Task> replayedTasks = storage.load();
+        new Journal(filePath).replay(replayedTasks);
+        assertEquals(1, replayedTasks.size());
+        assertEquals(tasks.get(0).getSaveDataInfo(), replayedTasks.get(0).getSaveDataInfo());
+    }
+
+    /**
+     * Changes tasks in the middle of a compaction, and returns the copy of tasks to be saved by the compaction.
+     */
+    private List<Task> startCompaction(TaskList tasks, String filePath) throws IOException, HydddException {
+        tasks.add("todo", "borrow book", "");
+        new Storage(filePath).saveListDataToFile(tasks);
+        Journal journal = new Journal(filePath);
+        journal.replay(new ArrayList<>());
+        tasks.addListener(journal);
+
+        tasks.add("deadline", "return book", "2/12/2019 1800");
+        journal.commit();
+        List<Task> tasksToSave = tasks.copyTasks();
+        journal.startCompaction();
+        tasks.markDone(0);
+        tasks.add("event", "project meeting", "2019-10-15");
+        journal.commit();
+        return tasksToSave;
+    }
+
+    private void assertReplayedTasks(TaskList tasks, String filePath) throws IOException, HydddException {
+        List<Task> replayedTasks = new Storage(filePath).load();
+        new Journal(filePath).replay(replayedTasks);
+        assertEquals(tasks.size(), replayedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getSaveDataInfo(), replayedTasks.get(i).getSaveDataInfo());
+        }
+    }
+}
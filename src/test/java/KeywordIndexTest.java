@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import hyddd.exceptions.HydddException;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
+/**
+ * @author Hang Zelin
+ *
+ * A JUnit class that tests finding tasks through the KeywordIndex of the TaskList, which should find the same
+ * tasks as checking every task with String.contains.
+ */
+public class KeywordIndexTest {
+    private static final String NO_MATCH = "Sorry. There is no tasks matching the keyword you give me!! :(\n";
+
+    private TaskList createTasks() throws HydddException {
+        TaskList tasks = new TaskList();
+        tasks.add("todo", "read book", "");
+        tasks.add("todo", "read notebook", "");
+        tasks.add("todo", "borrow book from library", "");
+        tasks.add("deadline", "return book", "2/12/2019 1800");
+        tasks.add("event", "book club meeting", "2019-10-15");
+        tasks.add("todo", "bookkeeping", "");
+        return tasks;
+    }
+
+    /**
+     * Asserts that findTasks finds exactly the tasks that contain the keyword.
+     */
+    private void assertFound(TaskList tasks, String keyword, int expectedCount) {
+        List<String> expected = tasks.asList().stream()
+                .map(Task::getTaskStatus)
+                .filter(status -> status.contains(keyword))
+                .collect(Collectors.toList());
+        assertEquals(expectedCount, expected.size());
+        String text = tasks.findTasks(keyword);
+        if (expected.isEmpty()) {
+            assertEquals(NO_MATCH, text);
+            return;
+        }
+        List<String> found = text.lines()
+                .map(line -> line.substring(line.indexOf('.') + 1))
+                .collect(Collectors.toList());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    public void findTasks_singleWord_sameAsContains() throws HydddException {
+        TaskList tasks = createTasks();
+        assertFound(tasks, "borrow", 1);
+        assertFound(tasks, "library", 1);
+        assertFound(tasks, "homework", 0);
+    }
+
+    @Test
+    public void findTasks_multiWordKeyword_sameAsContains() throws HydddException {
+        TaskList tasks = createTasks();
+        assertFound(tasks, "read book", 1);
+        assertFound(tasks, "book from", 1);
+        assertFound(tasks, "borrow book from library", 1);
+        assertFound(tasks, "ad noteb", 1);
+        assertFound(tasks, "ok cl", 1);
+        assertFound(tasks, "[T][ ] read", 2);
+        assertFound(tasks, "book book", 0);
+    }
+
+    @Test
+    public void findTasks_keywordInsideWord_sameAsContains() throws HydddException {
+        TaskList tasks = createTasks();
+        assertFound(tasks, "book", 6);
+        assertFound(tasks, "ook", 6);
+        assertFound(tasks, "keep", 1);
+        assertFound(tasks, "eb", 1);
+    }
+
+    @Test
+    public void findTasks_afterDeleteDoneAndUndo_indexKeptUpToDate() throws HydddException {
+        TaskList tasks = createTasks();
+        tasks.delete(1);
+        assertFound(tasks, "notebook", 0);
+        assertFound(tasks, "book", 5);
+        tasks.undo();
+        assertFound(tasks, "notebook", 1);
+        assertFound(tasks, "read noteb", 1);
+
+        tasks.markDone(0);
+        assertFound(tasks, "[X] read", 1);
+        assertFound(tasks, "[ ] read", 1);
+        tasks.undo();
+        assertFound(tasks, "[X] read", 0);
+        assertFound(tasks, "[ ] read", 2);
+
+        tasks.add("todo", "write notes", "");
+        assertFound(tasks, "note", 2);
+        tasks.undo();
+        assertFound(tasks, "write", 0);
+    }
+}
@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import hyddd.metrics.Metrics;
+
+/**
+ * @author Hang Zelin
+ *
+ * A JUnit class that tests the latencies and counters kept by Metrics.
+ */
+public class MetricsTest {
+
+    @Test
+    public void recordCommand_manyLatencies_percentilesWithinABucket() {
+        Metrics metrics = new Metrics();
+        for (long millis = 1; millis <= 100; millis++) {
+            metrics.recordCommand("list", millis * 1_000_000);
+        }
+        metrics.recordInvalidCommand(1000);
+
+        String[] fields = metrics.getLatencies()[1].split("[:,] ");
+        assertEquals("list", fields[0]);
+        assertEquals("100", fields[1]);
+        double p50 = Double.parseDouble(fields[2].replace(" ms", ""));
+        double p99 = Double.parseDouble(fields[3].replace(" ms", ""));
+        assertTrue(p50 >= 50 && p50 <= 50 * 1.125, "p50 was " + p50);
+        assertTrue(p99 >= 99 && p99 <= 100, "p99 was " + p99);
+        assertEquals("100.000 ms", fields[4]);
+        assertEquals(100, metrics.getCommandCount());
+        assertEquals(1, metrics.getInvalidCommandCount());
+    }
+
+    @Test
+    public void recordWrite_countsSavesAndBytes() {
+        Metrics metrics = new Metrics();
+        metrics.recordWrite(Metrics.SAVE, 2_000_000, 300);
+        metrics.recordWrite(Metrics.JOURNAL, 100_000, 20);
+
+        assertEquals(2, metrics.getSaveCount());
+        assertEquals(320, metrics.getBytesWritten());
+        assertTrue(metrics.getReport().contains("Saves: 2, bytes written: 320"));
+    }
+}
@@ -1,13 +1,21 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import hyddd.exceptions.HydddException;
+import hyddd.executions.Execution;
 import hyddd.logics.Parser;
+import hyddd.metrics.Metrics;
+import hyddd.task.TaskList;
+import hyddd.uimanager.TextUi;
 /**
  * @author Hang Zelin
  *
@@ -87,4 +95,65 @@ public class ParserTest {
         assertEquals(14, new Parser("done 15").getIndex());
         assertEquals(20312130, new Parser("done 20312131").getIndex());
     }
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new LocalDateTime[] {LocalDate.of(2026, 10, 1).atStartOfDay(),
+                LocalDate.of(2026, 11, 1).atStartOfDay()}, new Parser("").parseRange("2026-10-01 to 31/10/2026"));
+        assertArrayEquals(new LocalDateTime[] {LocalDate.of(2019, 12, 2).atTime(18, 0),
+                LocalDate.of(2019, 12, 2).atTime(18, 1)}, new Parser("").parseRange("2/12/2019 1800"));
+        assertNull(new Parser("").parseRange("2026-10-31 to 2026-10-01"));
+        assertNull(new Parser("").parseRange("today to tomorrow"));
+    }
+
+    @Test
+    public void testParseWindowAndPaging() {
+        assertEquals(Duration.ofDays(7), new Parser("").parseWindow("7d"));
+        assertEquals(Duration.ofHours(12), new Parser("").parseWindow("12h"));
+        assertEquals(Duration.ofDays(14), new Parser("").parseWindow("2w"));
+        assertNull(new Parser("").parseWindow("soon"));
+        try {
+            Parser parser = new Parser("upcoming 7d /limit 20 /page 3");
+            assertEquals("7d", parser.getTime());
+            assertEquals(20, parser.getLimit());
+            assertEquals(3, parser.getPage());
+        } catch (HydddException e) {
+            fail(); //should not reach this.
+        }
+    }
+
+    @Test
+    public void testParseIndexes() {
+        assertArrayEquals(new int[] {0, 3, 8}, new Parser("").parseIndexes("1,4,9", 10));
+        assertArrayEquals(new int[] {1, 2, 3, 5}, new Parser("").parseIndexes("2-4, 6, 3", 10));
+        assertNull(new Parser("").parseIndexes("1-11", 10));
+        assertNull(new Parser("").parseIndexes("where done", 10));
+        assertEquals(true, new Parser("delete where done").isBulkSelection());
+        assertEquals(false, new Parser("delete 3").isBulkSelection());
+    }
+
+    @Test
+    public void bulkSelection_notAnIndex_sameErrorAsSingleIndex() throws HydddException {
+        TaskList tasks = new TaskList();
+        tasks.add("todo", "read book", "");
+        for (String command : new String[] {"done", "delete"}) {
+            assertEquals(true, new Parser(command + " abc").isBulkSelection());
+            assertEquals(false, new Parser(command + " 9").isBulkSelection());
+            assertEquals(returnResponse(tasks, command + " 9"), returnResponse(tasks, command + " abc"));
+        }
+        assertEquals(1, tasks.size());
+    }
+
+    /**
+     * Returns the response of the command that Execution dispatches for the input, which is run directly instead
+     * of through executionResponse.
+     */
+    private static String returnResponse(TaskList tasks, String input) throws HydddException {
+        Parser parser = new Parser(input);
+        List<String> parsedInputs = parser.returnSplitComponent();
+        return new Execution(tasks, new TextUi(), parser, () -> { }, new Metrics())
+                .operationForhyddd(Integer.parseInt(parsedInputs.get(3)), parsedInputs.get(0), parsedInputs.get(1),
+                        parsedInputs.get(2))
+                .returnResponse();
+    }
 }
@@ -1,18 +1,41 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import hyddd.exceptions.HydddException;
+import hyddd.metrics.Metrics;
+import hyddd.saveloadmanager.LsmEngine;
+import hyddd.saveloadmanager.PageStoreEngine;
+import hyddd.saveloadmanager.SaveDataConverter;
+import hyddd.saveloadmanager.SaveDataLoader;
+import hyddd.saveloadmanager.SaveFormat;
 import hyddd.saveloadmanager.Storage;
+import hyddd.saveloadmanager.StorageEngine;
+import hyddd.saveloadmanager.TextStorageEngine;
+import hyddd.task.PagedTaskList;
+import hyddd.task.Task;
+import hyddd.task.TaskList;
 /**
  * @author Hang Zelin
  *
  * A JUnit class that tests some methods in Storage.
  */
 public class StorageTest {
+    @TempDir
+    Path tempDir;
 
     @Test
     public void load_correctFilePath_success() {
@@ -39,4 +62,186 @@ public class StorageTest {
             assertEquals("OOPS!!! Cannot Read From Data!!!", e.getErrorMessage());
         }
     }
+
+    @Test
+    public void convert_textToBinaryAndBack_sameTasks() throws HydddException, IOException {
+        String binaryPath = tempDir.resolve("tasks.bin").toString();
+        String textPath = tempDir.resolve("tasks.txt").toString();
+        SaveDataConverter.convert("tasks.txt", binaryPath, SaveFormat.BINARY);
+        SaveDataConverter.convert(binaryPath, textPath, SaveFormat.TEXT);
+
+        ArrayList<Task> originalTasks = new Storage("tasks.txt").load();
+        ArrayList<Task> binaryTasks = new Storage(binaryPath).load();
+        ArrayList<Task> textTasks = new Storage(textPath).load();
+        assertEquals(originalTasks.size(), binaryTasks.size());
+        assertEquals(originalTasks.size(), textTasks.size());
+        for (int i = 0; i < originalTasks.size(); i++) {
+            assertEquals(originalTasks.get(i).getSaveDataInfo(), binaryTasks.get(i).getSaveDataInfo());
+            assertEquals(originalTasks.get(i).getSaveDataInfo(), textTasks.get(i).getSaveDataInfo());
+        }
+    }
+
+    @Test
+    public void loadInParallel_manyChunks_sameAsLoad() throws IOException {
+        Path path = tempDir.resolve("tasks.txt");
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            data.append("T | ").append(i % 2).append(" | read book ").append(i).append("\n");
+            data.append("D | 1 | return book ").append(i).append(" | 2/12/2019 1800\r\n");
+            data.append("E | 0 | project meeting ").append(i).append(" | sometime/soon\n");
+        }
+        data.append("E | 1 | last meeting | 15/10/2019 0900");
+        Files.writeString(path, data.toString(), StandardCharsets.UTF_8);
+
+        List<Task> tasks = new ArrayList<>();
+        new SaveDataLoader(path.toString()).load(tasks);
+        List<Task> parallelTasks = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        new SaveDataLoader(path.toString()).loadInParallel(parallelTasks, pool);
+        pool.shutdown();
+
+        assertEquals(1501, tasks.size());
+        assertEquals(tasks.size(), parallelTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).getSaveDataInfo(), parallelTasks.get(i).getSaveDataInfo());
+        }
+    }
+
+    @Test
+    public void loadLazily_smallCache_sameAsLoad() throws IOException, HydddException {
+        Path path = tempDir.resolve("tasks.txt");
+        StringBuilder data = new StringBuilder("not a task\n");
+        for (int i = 0; i < 1000; i++) {
+            data.append("T | 0 | read book ").append(i).append("\n");
+            data.append("D | 1 | return book ").append(i).append(" | 2/12/2019 1800\r\n");
+        }
+        Files.writeString(path, data.toString(), StandardCharsets.UTF_8);
+
+        TaskList tasks = new TaskList(new Storage(path.toString()).load());
+        List<Task> lazyStore = new Storage(path.toString()).loadLazily(300);
+        assertTrue(lazyStore instanceof PagedTaskList);
+        try (PagedTaskList lazyList = (PagedTaskList) lazyStore) {
+            TaskList lazyTasks = new TaskList(lazyList);
+            assertTrue(Files.exists(tempDir.resolve("tasks.txt.index")));
+            for (TaskList t : new TaskList[] {tasks, lazyTasks}) {
+                t.markDone(1500);
+                t.delete(3);
+                t.add("todo", "write essay", "");
+                t.undo();
+                t.markDone(0);
+            }
+
+            List<Task> copy = lazyTasks.copyTasks();
+            TaskList.releaseCopy(copy);
+            assertEquals(tasks.printListUi(), lazyTasks.printListUi()); //Still read after the copy is closed.
+            assertEquals(tasks.findTasks("book 99"), lazyTasks.findTasks("book 99"));
+            assertEquals(tasks.getSpecificDateEvent("2/12/2019"), lazyTasks.getSpecificDateEvent("2/12/2019"));
+        }
+        try (PagedTaskList reloadedList = (PagedTaskList) new Storage(path.toString()).loadLazily(300)) {
+            assertEquals(2000, reloadedList.size()); //Loaded from the index file.
+        }
+    }
+
+    @Test
+    public void pageStoreEngine_changesReopened_sameAsTaskList() throws IOException, HydddException {
+        Path path = tempDir.resolve("tasks.txt");
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            data.append("T | 0 | read book ").append(i).append("\n");
+            data.append("D | 1 | return book ").append(i).append(" | 2/12/2019 1800\n");
+        }
+        Files.writeString(path, data.toString(), StandardCharsets.UTF_8);
+
+        PageStoreEngine engine = new PageStoreEngine(path.toString(), new Metrics());
+        TaskList tasks = new TaskList(engine.load());
+        engine.attach(tasks);
+        assertTrue(Files.exists(tempDir.resolve("tasks.db")));
+        tasks.markDone(1500);
+        engine.commit();
+        tasks.delete(3);
+        tasks.undo();
+        tasks.delete(7);
+        engine.commit();
+        for (int i = 0; i < 30; i++) {
+            tasks.add("todo", "write essay " + i, "");
+            tasks.restore(tasks.size() - 2, tasks.get(tasks.size() - 1)); //Inserts between two close keys.
+            tasks.removeLast();
+        }
+        engine.close(); //Commits the changes left.
+
+        try (PageStoreEngine reopenedEngine = new PageStoreEngine(path.toString(), new Metrics())) {
+            TaskList reopenedTasks = new TaskList(reopenedEngine.load());
+            assertEquals(tasks.printListUi(), reopenedTasks.printListUi());
+            assertEquals(3999 + 30, reopenedTasks.size());
+        }
+    }
+
+    @Test
+    public void lsmEngine_segmentsMergedAndReopened_sameAsTaskList() throws IOException, HydddException {
+        Path path = tempDir.resolve("tasks.txt");
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            data.append("T | 0 | read book ").append(i).append("\n");
+        }
+        Files.writeString(path, data.toString(), StandardCharsets.UTF_8);
+
+        System.setProperty("hyddd.lsm.memtable", "2000");
+        LsmEngine engine;
+        try {
+            engine = new LsmEngine(path.toString(), new Metrics());
+        } finally {
+            System.clearProperty("hyddd.lsm.memtable");
+        }
+        TaskList tasks = new TaskList(engine.load());
+        engine.attach(tasks);
+        for (int i = 0; i < 300; i++) {
+            tasks.add("todo", "write essay " + i, "");
+            tasks.markDone(i);
+            tasks.delete(i + 1);
+            engine.commit();
+        }
+        tasks.delete(0);
+        engine.close(); //Appends the changes left and waits for the running merge.
+
+        try (LsmEngine reopenedEngine = new LsmEngine(path.toString(), new Metrics())) {
+            TaskList reopenedTasks = new TaskList(reopenedEngine.load());
+            assertEquals(tasks.printListUi(), reopenedTasks.printListUi());
+            assertEquals(499, reopenedTasks.size());
+        }
+        try (Stream<Path> files = Files.list(tempDir.resolve("tasks.lsm"))) {
+            assertTrue(files.count() < 10); //The segments are merged.
+        }
+    }
+
+    @Test
+    public void switchEngine_afterJournaledChanges_changesImported() throws IOException, HydddException {
+        List<Function<String, StorageEngine>> engines = List.of(
+            filePath -> new PageStoreEngine(filePath, new Metrics()),
+            filePath -> new LsmEngine(filePath, new Metrics()));
+        for (int i = 0; i < engines.size(); i++) {
+            Path path = Files.createDirectory(tempDir.resolve("engine" + i)).resolve("tasks.txt");
+            Files.writeString(path, "T | 0 | read book\n", StandardCharsets.UTF_8);
+            TaskList tasks;
+            try (TextStorageEngine textEngine = new TextStorageEngine(path.toString(), true, SaveFormat.TEXT,
+                    false, false, new Metrics())) {
+                tasks = new TaskList(textEngine.load());
+                textEngine.attach(tasks);
+                tasks.add("todo", "alpha", "");
+                textEngine.commit();
+                tasks.add("todo", "beta", "");
+                tasks.markDone(0);
+                textEngine.commit();
+            }
+            assertEquals(1, Files.readAllLines(path).size()); //The changes are only in the journal.
+
+            try (StorageEngine engine = engines.get(i).apply(path.toString())) {
+                TaskList importedTasks = new TaskList(engine.load());
+                assertEquals(tasks.printListUi(), importedTasks.printListUi());
+                assertEquals(3, importedTasks.size());
+            }
+            TaskList foldedTasks = new TaskList(new Storage(path.toString()).load());
+            assertEquals(tasks.printListUi(), foldedTasks.printListUi()); //The journal is folded in, not left stale.
+            assertEquals(1, Files.readAllLines(Path.of(path + ".journal")).size());
+        }
+    }
 }
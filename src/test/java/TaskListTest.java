@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import hyddd.exceptions.HydddException;
+import hyddd.task.TaskList;
+/**
+ * @author Hang Zelin
+ *
+ * A JUnit class that tests the TaskList on the stores that keep its tasks, and from many threads at once.
+ */
+public class TaskListTest {
+
+    @Test
+    public void deleteAndUndo_acrossChunks_sameAsArrayList() throws HydddException {
+        List<TaskList> taskLists = List.of(new TaskList(new ArrayList<>()), new TaskList(),
+                new TaskList(TaskList.newTaskStore(true)));
+        for (TaskList tasks : taskLists) {
+            for (int i = 0; i < 5000; i++) {
+                tasks.add(i % 2 == 0 ? "todo" : "deadline", "task " + i, "2/12/2019 1800");
+            }
+            for (int index = 0; index < 5000; index += 7) {
+                tasks.delete(index);
+                tasks.undo();
+                tasks.markDone(index);
+            }
+            for (int index = 4999; index >= 0; index -= 13) {
+                tasks.delete(index);
+            }
+            tasks.delete(0);
+            tasks.undo();
+        }
+
+        assertEquals(taskLists.get(0).printListUi(), taskLists.get(1).printListUi());
+        assertEquals(taskLists.get(0).printListUi(), taskLists.get(2).printListUi());
+        assertEquals(taskLists.get(0).findTasks("task 49"), taskLists.get(2).findTasks("task 49"));
+    }
+
+    @Test
+    public void bulkDoneAndDelete_nothingChanged_undoKeepsLastChange() throws HydddException {
+        TaskList tasks = new TaskList();
+        tasks.add("todo", "read book", "");
+        tasks.add("todo", "return book", "");
+        tasks.markDone(0);
+        assertEquals(0, tasks.markAllDone(new int[] {0}));
+        tasks.deleteAll(new int[0]);
+        tasks.undo();
+        assertEquals(false, tasks.get(0).isDone()); //Undoes the single done, not the empty batches.
+
+        tasks.markAllDone(new int[] {0, 1});
+        tasks.deleteAll(new int[] {1});
+        tasks.markAllDone(new int[] {0});
+        tasks.undo();
+        assertEquals(2, tasks.size());
+        assertEquals(true, tasks.get(1).isDone());
+    }
+
+    @Test
+    public void concurrentReadersAndWriters_listStaysConsistent() throws Exception {
+        for (TaskList tasks : List.of(new TaskList(), new TaskList(TaskList.newTaskStore(true)))) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            AtomicInteger deletedCount = new AtomicInteger();
+            List<Future<?>> writers = new ArrayList<>();
+            List<Future<?>> readers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        tasks.add("deadline", "w" + writer + " task " + i, "2/12/2019 1800");
+                        if (i % 5 == 0) {
+                            tasks.markAllDone(new int[] {0});
+                        }
+                        if (i % 10 == 0) {
+                            tasks.delete(0);
+                            deletedCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 4; r++) {
+                readers.add(executor.submit(() -> {
+                    int lastModificationCount = 0;
+                    for (int i = 0; i < 100; i++) {
+                        assertNumberedFromOne(tasks.printListUi());
+                        assertTrue(tasks.findTasks("task 1").lines().allMatch(line -> line.contains("task 1")
+                                || line.startsWith("Sorry")));
+                        int modificationCount = tasks.getModificationCount();
+                        assertTrue(modificationCount >= lastModificationCount);
+                        lastModificationCount = modificationCount;
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : writers) {
+                future.get();
+            }
+            for (Future<?> future : readers) {
+                future.get();
+            }
+            executor.shutdown();
+
+            assertEquals(2000 - deletedCount.get(), tasks.size());
+            assertEquals(tasks.size(), tasks.printListUi().lines().count() - 1);
+            assertEquals(tasks.size(), tasks.getSpecificDateEvent("2/12/2019").lines().count());
+            assertEquals(tasks.size(), tasks.copyTasks().size());
+        }
+    }
+
+    private void assertNumberedFromOne(String list) {
+        int[] number = {0};
+        list.lines().skip(1).forEach(line -> assertTrue(line.startsWith(++number[0] + ".")));
+    }
+}